@@ -0,0 +1,289 @@
+package com.k8s.dummy.operator.controller;
+
+import com.k8s.dummy.operator.controller.cache.CacheSync;
+import com.k8s.dummy.operator.controller.cache.DeploymentIndexers;
+import com.k8s.dummy.operator.controller.cache.GenerationCache;
+import com.k8s.dummy.operator.controller.client.AsyncEnhancedClient;
+import com.k8s.dummy.operator.controller.client.EnhancedClient;
+import com.k8s.dummy.operator.controller.events.EventRecorder;
+import com.k8s.dummy.operator.controller.metrics.OperatorMetrics;
+import com.k8s.dummy.operator.controller.queue.ItemExponentialFailureRateLimiter;
+import com.k8s.dummy.operator.controller.queue.RateLimitingQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
+import com.k8s.dummy.operator.controller.tracing.ReconcileTracer;
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummySpec;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.PodTemplateSpec;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.events.v1.Event;
+import io.fabric8.kubernetes.api.model.events.v1.EventSeries;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.informers.cache.Lister;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Benchmarks of the DummyController hot paths against informer caches holding
+ * cacheSize Dummies and their Deployments. Even Dummies have the desired Deployment and
+ * odd ones a Deployment with a stale spec, so reconciles take the no-op and the edit path.
+ * The API client does nothing, only the work done by the operator itself is measured.
+ * Run with "mvn -P benchmark test-compile exec:exec", which adds the gc profiler.
+ * Logging is at WARN level as in the load test, the reconciles are traced but not exported.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g",
+    "-Dlogback.configurationFile=src/test/resources/logback-load-test.xml"})
+public class DummyControllerBenchmark {
+  private static final String kindName = "Dummy";
+
+  @Param({"100", "1000", "10000", "100000"})
+  private int cacheSize;
+
+  private DummyController controller;
+  private RateLimitingQueue<String> queue;
+  private Dummy[] dummies;
+  private String[] keys;
+  private Deployment[] deployments;
+  private String[] specHashes;
+
+  /**
+   * Fill the caches and create a controller without workers, the benchmarks drive it.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    Cache<Dummy> dummyCache = new Cache<>();
+    Cache<Deployment> deployCache = new Cache<>();
+    deployCache.addIndexers(DeploymentIndexers.getIndexers(kindName));
+    queue = new RateLimitingQueue<>(new ItemExponentialFailureRateLimiter<>(5, 1000));
+    AsyncEnhancedClient<?> asyncClient = new AsyncEnhancedClient<>(new NoopClient(),
+                                                                   Runnable::run, 1);
+    controller = new DummyController(asyncClient,
+                                     new NoopEventRecorder(),
+                                     kindName,
+                                     Map.of("xgeeks", kindName),
+                                     queue,
+                                     new Lister<>(dummyCache),
+                                     deployCache,
+                                     new GenerationCache<>(cacheSize),
+                                     new GenerationCache<>(cacheSize),
+                                     new CacheSync(List.of(), 0),
+                                     new OperatorMetrics(new SimpleMeterRegistry()),
+                                     new ReconcileTracer(1000),
+                                     Shard.ALL,
+                                     new SimpleAsyncTaskExecutor(),
+                                     0,
+                                     0,
+                                     0,
+                                     0);
+
+    dummies = new Dummy[cacheSize];
+    keys = new String[cacheSize];
+    deployments = new Deployment[cacheSize];
+    specHashes = new String[cacheSize];
+    for (int i = 0; i < cacheSize; i++) {
+      Dummy dummy = generateDummy(i);
+      Deployment deployment = new DeploymentBuilder(controller.generateDeployment(dummy))
+                                    .editMetadata()
+                                      .withUid("deployment-uid-" + i)
+                                      .withGeneration(1L)
+                                      .endMetadata()
+                                    .build();
+      if (i % 2 == 1) {
+        deployment = new DeploymentBuilder(deployment).editSpec().withReplicas(0).endSpec().build();
+      }
+      dummyCache.put(dummy);
+      deployCache.put(deployment);
+      dummies[i] = dummy;
+      keys[i] = Cache.metaNamespaceKeyFunc(dummy);
+      deployments[i] = deployment;
+      specHashes[i] = controller.generateSpecHash(dummy);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    queue.shutdown();
+  }
+
+  @Benchmark
+  public Deployment generateDeployment(Cursor cursor) {
+    return controller.generateDeployment(dummies[cursor.next(cacheSize)]);
+  }
+
+  @Benchmark
+  public PodTemplateSpec generatePodTemplateSpec(Cursor cursor) {
+    return controller.generatePodTemplateSpec(dummies[cursor.next(cacheSize)]);
+  }
+
+  @Benchmark
+  public String generateSpecHash(Cursor cursor) {
+    return controller.generateSpecHash(dummies[cursor.next(cacheSize)]);
+  }
+
+  @Benchmark
+  public Event generateEvent(Cursor cursor) {
+    return controller.generateEvent(dummies[cursor.next(cacheSize)], "editing");
+  }
+
+  @Benchmark
+  public Optional<Deployment> getDeployment(Cursor cursor) {
+    return controller.getDeployment(dummies[cursor.next(cacheSize)]);
+  }
+
+  /**
+   * Compare a cached Deployment with an already computed spec hash.
+   *
+   * @param cursor position in the cache of the current thread
+   * @return boolean
+   */
+  @Benchmark
+  public boolean isDesiredDeployment(Cursor cursor) {
+    int i = cursor.next(cacheSize);
+    return controller.isDesiredDeployment(deployments[i], specHashes[i]);
+  }
+
+  /**
+   * Go through the control loop for a Dummy whose Deployment is already the desired one.
+   *
+   * @param cursor position in the cache of the current thread
+   * @throws InterruptedException when current thread is interrupted
+   */
+  @Benchmark
+  public void reconcileConverged(Cursor cursor) throws InterruptedException {
+    queue.add(keys[cursor.nextEven(cacheSize)]);
+    controller.controlLoop();
+  }
+
+  /**
+   * Go through the control loop for a Dummy whose Deployment has to be edited.
+   *
+   * @param cursor position in the cache of the current thread
+   * @throws InterruptedException when current thread is interrupted
+   */
+  @Benchmark
+  public void reconcileDrifted(Cursor cursor) throws InterruptedException {
+    queue.add(keys[cursor.nextEven(cacheSize) + 1]);
+    controller.controlLoop();
+  }
+
+  private static Dummy generateDummy(int i) {
+    Dummy dummy = new Dummy();
+    dummy.setMetadata(new ObjectMetaBuilder().withName("dummy-" + i)
+                                             .withNamespace("namespace-" + i % 16)
+                                             .withUid("uid-" + i)
+                                             .withGeneration(1L)
+                                             .build());
+    DummySpec spec = new DummySpec();
+    spec.setQuote("quote " + i);
+    spec.setSleep(20);
+    spec.setExtra(new String[] {"extra", String.valueOf(i)});
+    spec.setReplicas(1);
+    dummy.setSpec(spec);
+    return dummy;
+  }
+
+  /**
+   * Position of a benchmark thread in the cache, so consecutive invocations do not keep
+   * hitting the same object.
+   */
+  @State(Scope.Thread)
+  public static class Cursor {
+    private int position;
+
+    int next(int size) {
+      position = (position + 1) % size;
+      return position;
+    }
+
+    int nextEven(int size) {
+      position = (position + 2 - position % 2) % (size - size % 2);
+      return position;
+    }
+  }
+
+  private static class NoopEventRecorder extends EventRecorder {
+    NoopEventRecorder() {
+      super(null, 1, 0, 0);
+    }
+
+    @Override
+    public boolean record(Event event) {
+      return true;
+    }
+  }
+
+  private static class NoopClient implements EnhancedClient<Void> {
+    @Override
+    public void addDeployment(Deployment deployment) {
+    }
+
+    @Override
+    public void editDeployment(Deployment desiredDeployment) {
+    }
+
+    @Override
+    public void updateStatus(Dummy dummy, DummyStatus status) {
+    }
+
+    @Override
+    public Event addEvent(Event event) {
+      return event;
+    }
+
+    @Override
+    public void updateEventSeries(Event event, EventSeries series) {
+    }
+
+    @Override
+    public void createLease(Lease lease) {
+    }
+
+    @Override
+    public void renewLease(Lease lease) {
+    }
+
+    @Override
+    public List<Lease> getLeases(String namespace, String label) {
+      return List.of();
+    }
+
+    @Override
+    public void deleteLease(Lease lease) {
+    }
+
+    @Override
+    public boolean checkHealthiness(String kindName) {
+      return true;
+    }
+
+    @Override
+    public Void getClient() {
+      return null;
+    }
+  }
+}
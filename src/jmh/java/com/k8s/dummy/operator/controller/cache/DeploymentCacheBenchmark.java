@@ -0,0 +1,201 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import com.k8s.dummy.operator.controller.DummyController;
+import io.fabric8.kubernetes.api.model.FieldsV1;
+import io.fabric8.kubernetes.api.model.IntOrString;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.utils.Serialization;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Footprint of the Deployment informer cache with full and with projected Deployments
+ * (@see DeploymentProjection). The setup fills an indexed cache with cacheSize Deployments as
+ * the API server returns them, with status, managed fields and defaulted pod template, and
+ * prints the heap bytes retained by each cached Deployment, not counting the cache maps which
+ * are the same with both representations. The benchmark measures the cost each
+ * watch event pays for the projection.
+ * Run with "mvn -P benchmark test-compile exec:exec -Djmh.args=DeploymentCacheBenchmark".
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class DeploymentCacheBenchmark {
+  private static final String kindName = "Dummy";
+
+  @Param({"10000"})
+  private int cacheSize;
+
+  @Param({"false", "true"})
+  private boolean slim;
+
+  private UnaryOperator<Deployment> projection;
+  private Deployment[] deployments;
+  private int next;
+
+  /**
+   * Fill the cache and print its retained size per Deployment.
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    projection = slim
+        ? DeploymentProjection.getProjection(List.of(DummyController.SPEC_HASH_ANNOTATION))
+        : UnaryOperator.identity();
+    deployments = new Deployment[cacheSize];
+    Cache<Deployment> cache = new Cache<>();
+    cache.addIndexers(DeploymentIndexers.getIndexers(kindName));
+    for (int i = 0; i < cacheSize; i++) {
+      deployments[i] = Serialization.unmarshal(Serialization.asJson(generateDeployment(i)),
+                                               Deployment.class);
+      cache.put(projection.apply(deployments[i]));
+    }
+    long bytes = GraphLayout.parseInstance(cache.list().toArray()).totalSize();
+    System.out.printf("%nHeap bytes per cached Deployment (slim=%b): %d%n",
+                      slim, bytes / cacheSize);
+  }
+
+  @Benchmark
+  public Deployment receiveDeployment() {
+    next = (next + 1) % cacheSize;
+    return projection.apply(deployments[next]);
+  }
+
+  private Deployment generateDeployment(int i) {
+    String name = "dummy-" + i;
+    String namespace = "namespace-" + (i % 100);
+    Map<String, Object> fields = Map.of(
+        "f:metadata", Map.of("f:annotations", Map.of("f:" + DummyController.SPEC_HASH_ANNOTATION,
+                                                     Map.of()),
+                             "f:labels", Map.of("f:" + kindName, Map.of())),
+        "f:spec", Map.of("f:replicas", Map.of(),
+                         "f:template", Map.of("f:spec", Map.of("f:containers", Map.of(
+                             "k:{\"name\":\"" + name + "-container\"}",
+                             Map.of("f:args", Map.of(), "f:command", Map.of(),
+                                    "f:image", Map.of(), "f:name", Map.of()))))));
+    return new DeploymentBuilder()
+                .withNewMetadata()
+                  .withName(name)
+                  .withNamespace(namespace)
+                  .withUid("5e1c0f7a-0000-4000-8000-" + String.format("%012d", i))
+                  .withResourceVersion(String.valueOf(100000 + i))
+                  .withGeneration(2L)
+                  .withCreationTimestamp("2021-07-01T10:00:00Z")
+                  .addToLabels(kindName, name)
+                  .addToAnnotations(DummyController.SPEC_HASH_ANNOTATION, "0123456789abcdef")
+                  .addToAnnotations("deployment.kubernetes.io/revision", "2")
+                  .addNewOwnerReference()
+                    .withApiVersion("xgeeks.ki.com/v1beta1")
+                    .withKind(kindName)
+                    .withName(name)
+                    .withUid("8a2d4b6c-0000-4000-8000-" + String.format("%012d", i))
+                    .endOwnerReference()
+                  .addNewManagedField()
+                    .withManager("operator")
+                    .withOperation("Update")
+                    .withApiVersion("apps/v1")
+                    .withTime("2021-07-01T10:00:00Z")
+                    .withFieldsType("FieldsV1")
+                    .withFieldsV1(generateFields(fields))
+                    .endManagedField()
+                  .addNewManagedField()
+                    .withManager("kube-controller-manager")
+                    .withOperation("Update")
+                    .withApiVersion("apps/v1")
+                    .withTime("2021-07-01T10:00:05Z")
+                    .withFieldsType("FieldsV1")
+                    .withFieldsV1(generateFields(Map.of("f:status", Map.of(
+                        "f:availableReplicas", Map.of(), "f:observedGeneration", Map.of(),
+                        "f:readyReplicas", Map.of(), "f:replicas", Map.of(),
+                        "f:updatedReplicas", Map.of()))))
+                    .endManagedField()
+                  .endMetadata()
+                .withNewSpec()
+                  .withReplicas(3)
+                  .withRevisionHistoryLimit(10)
+                  .withProgressDeadlineSeconds(600)
+                  .withNewSelector()
+                    .addToMatchLabels(kindName, name)
+                    .endSelector()
+                  .withNewStrategy()
+                    .withType("RollingUpdate")
+                    .withNewRollingUpdate()
+                      .withMaxSurge(new IntOrString("25%"))
+                      .withMaxUnavailable(new IntOrString("25%"))
+                      .endRollingUpdate()
+                    .endStrategy()
+                  .withNewTemplate()
+                    .withNewMetadata()
+                      .addToLabels(kindName, name)
+                      .endMetadata()
+                    .withNewSpec()
+                      .addNewContainer()
+                        .withName(name + "-container")
+                        .withImage("busybox")
+                        .withImagePullPolicy("Always")
+                        .withCommand("/bin/sh")
+                        .withArgs("-c", "/bin/echo \"quote " + i + "\nextra\"; /bin/sleep 60")
+                        .withTerminationMessagePath("/dev/termination-log")
+                        .withTerminationMessagePolicy("File")
+                        .endContainer()
+                      .withRestartPolicy("Always")
+                      .withDnsPolicy("ClusterFirst")
+                      .withSchedulerName("default-scheduler")
+                      .withTerminationGracePeriodSeconds(30L)
+                      .withNewSecurityContext()
+                        .endSecurityContext()
+                      .endSpec()
+                    .endTemplate()
+                  .endSpec()
+                .withNewStatus()
+                  .withObservedGeneration(2L)
+                  .withReplicas(3)
+                  .withReadyReplicas(3)
+                  .withAvailableReplicas(3)
+                  .withUpdatedReplicas(3)
+                  .addNewCondition()
+                    .withType("Available")
+                    .withStatus("True")
+                    .withReason("MinimumReplicasAvailable")
+                    .withMessage("Deployment has minimum availability.")
+                    .withLastTransitionTime("2021-07-01T10:00:05Z")
+                    .withLastUpdateTime("2021-07-01T10:00:05Z")
+                    .endCondition()
+                  .addNewCondition()
+                    .withType("Progressing")
+                    .withStatus("True")
+                    .withReason("NewReplicaSetAvailable")
+                    .withMessage("ReplicaSet \"" + name
+                                 + "-5d9c7b8f6d\" has successfully progressed.")
+                    .withLastTransitionTime("2021-07-01T10:00:00Z")
+                    .withLastUpdateTime("2021-07-01T10:00:05Z")
+                    .endCondition()
+                  .endStatus()
+                .build();
+  }
+
+  private FieldsV1 generateFields(Map<String, Object> fields) {
+    FieldsV1 fieldsV1 = new FieldsV1();
+    fields.forEach(fieldsV1::setAdditionalProperty);
+    return fieldsV1;
+  }
+}
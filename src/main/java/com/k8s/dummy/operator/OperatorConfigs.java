@@ -1,24 +1,66 @@
 package com.k8s.dummy.operator;
 
+import com.k8s.dummy.operator.controller.DummyController;
+import com.k8s.dummy.operator.controller.audit.DriftAuditor;
+import com.k8s.dummy.operator.controller.cache.CacheSync;
+import com.k8s.dummy.operator.controller.cache.DeploymentIndexers;
+import com.k8s.dummy.operator.controller.cache.DeploymentProjection;
+import com.k8s.dummy.operator.controller.cache.GenerationCache;
+import com.k8s.dummy.operator.controller.cache.NamespacedIndexer;
+import com.k8s.dummy.operator.controller.cache.ProjectingListerWatcher;
+import com.k8s.dummy.operator.controller.client.AsyncEnhancedClient;
+import com.k8s.dummy.operator.controller.client.DeploymentUpdateMode;
 import com.k8s.dummy.operator.controller.client.EnhancedClient;
 import com.k8s.dummy.operator.controller.client.EnhancedKubernetesClient;
+import com.k8s.dummy.operator.controller.client.InstrumentedEnhancedClient;
+import com.k8s.dummy.operator.controller.client.ThrottledEnhancedClient;
+import com.k8s.dummy.operator.controller.events.EventRecorder;
 import com.k8s.dummy.operator.controller.handlers.DeploymentEventHandler;
 import com.k8s.dummy.operator.controller.handlers.DummyEventHandler;
+import com.k8s.dummy.operator.controller.metrics.OperatorMetrics;
+import com.k8s.dummy.operator.controller.queue.BucketRateLimiter;
+import com.k8s.dummy.operator.controller.queue.ItemExponentialFailureRateLimiter;
+import com.k8s.dummy.operator.controller.queue.MaxOfRateLimiter;
+import com.k8s.dummy.operator.controller.queue.RateLimitingQueue;
+import com.k8s.dummy.operator.controller.queue.WorkQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
+import com.k8s.dummy.operator.controller.sharding.ShardManager;
+import com.k8s.dummy.operator.controller.tracing.ReconcileTracer;
+import com.k8s.dummy.operator.controller.tracing.ReconcilesEndpoint;
 import com.k8s.dummy.operator.model.v1beta1.Dummy;
 import com.k8s.dummy.operator.model.v1beta1.DummyList;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentList;
 import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.kubernetes.client.dsl.MixedOperation;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.client.dsl.RollableScalableResource;
+import io.fabric8.kubernetes.client.dsl.base.OperationContext;
+import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
 import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Indexer;
 import io.fabric8.kubernetes.client.informers.cache.Lister;
-import java.util.Queue;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import io.fabric8.kubernetes.client.informers.impl.DefaultSharedIndexInformer;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 
 @Configuration
 public class OperatorConfigs {
@@ -28,13 +70,71 @@ public class OperatorConfigs {
   }
 
   @Bean
-  public EnhancedClient getEnhancedKubernetesClient(@Autowired KubernetesClient client) {
-    return  new EnhancedKubernetesClient(client);
+  public EnhancedClient getEnhancedKubernetesClient(@Autowired KubernetesClient client,
+                                                    @Autowired MeterRegistry registry,
+                                                    @Value("${operator.deployment.update-mode}") DeploymentUpdateMode updateMode,
+                                                    @Value("${operator.client.qps}") double qps,
+                                                    @Value("${operator.client.min-qps}") double minQps,
+                                                    @Value("${operator.client.burst}") int burst) {
+    return  new ThrottledEnhancedClient<>(new InstrumentedEnhancedClient<>(new EnhancedKubernetesClient(client, updateMode), registry),
+                                          registry, updateMode, qps, minQps, burst);
+  }
+
+  @Bean
+  public OperatorMetrics getOperatorMetrics(@Autowired MeterRegistry registry) {
+    return new OperatorMetrics(registry);
+  }
+
+  @Bean
+  public AsyncEnhancedClient<?> getAsyncEnhancedClient(@Autowired EnhancedClient<?> enhancedClient,
+                                                       @Autowired OperatorMetrics operatorMetrics,
+                                                       @Value("${operator.client.io-threads}") int ioThreads,
+                                                       @Value("${operator.client.max-in-flight}") int maxInFlight) {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("operator-client-");
+    threadFactory.setDaemon(true);
+    AsyncEnhancedClient<?> asyncClient = new AsyncEnhancedClient<>(enhancedClient, Executors.newFixedThreadPool(ioThreads, threadFactory), maxInFlight);
+    operatorMetrics.monitorClient(asyncClient);
+    return asyncClient;
+  }
+
+  @Bean
+  public EventRecorder getEventRecorder(@Autowired EnhancedClient enhancedClient,
+                                        @Value("${operator.events.buffer-size}") int bufferSize,
+                                        @Value("${operator.events.aggregation-window}") long window,
+                                        @Value("${operator.events.flush-period}") long flushPeriod) {
+    EventRecorder eventRecorder = new EventRecorder(enhancedClient, bufferSize, window, flushPeriod);
+    eventRecorder.start();
+    return eventRecorder;
   }
 
   @Bean("operator.queue")
-  public BlockingQueue<String> getQueue() {
-    return new LinkedBlockingQueue<>();
+  public RateLimitingQueue<String> getQueue(@Value("${operator.queue.base-delay}") long baseDelay,
+                                           @Value("${operator.queue.max-delay}") long maxDelay,
+                                           @Value("${operator.queue.qps}") double qps,
+                                           @Value("${operator.queue.burst}") int burst,
+                                           @Autowired OperatorMetrics operatorMetrics) {
+    RateLimitingQueue<String> queue = new RateLimitingQueue<>(new MaxOfRateLimiter<>(
+        new ItemExponentialFailureRateLimiter<>(baseDelay, maxDelay),
+        new BucketRateLimiter<>(qps, burst)), operatorMetrics);
+    operatorMetrics.monitorQueue(queue);
+    return queue;
+  }
+
+  @Bean
+  public Shard getShard(@Autowired EnhancedClient enhancedClient,
+                        @Value("${operator.sharding.enabled}") boolean enabled,
+                        @Value("${operator.sharding.namespace}") String namespace,
+                        @Value("${operator.sharding.identity}") String identity,
+                        @Value("${operator.sharding.lease-duration}") long leaseDuration,
+                        @Value("${operator.sharding.renew-period}") long renewPeriod,
+                        @Value("${operator.sharding.virtual-nodes}") int virtualNodes) {
+    if (!enabled) {
+      return Shard.ALL;
+    }
+    ShardManager shardManager = new ShardManager(enhancedClient, namespace, identity, leaseDuration,
+                                                 renewPeriod, virtualNodes);
+    shardManager.start();
+    return shardManager;
   }
 
   @Bean("operator.kindName")
@@ -43,37 +143,163 @@ public class OperatorConfigs {
   }
 
   @Bean
-  public DummyEventHandler getDummyEventHandler(@Qualifier("operator.queue") Queue<String> queue) {
-    return new DummyEventHandler(queue);
+  public GenerationCache<Dummy, Deployment> getDesiredDeployments(@Value("${operator.cache.desired-deployments}") int maxSize) {
+    return new GenerationCache<>(maxSize);
+  }
+
+  @Bean
+  public GenerationCache<Deployment, String> getLiveSpecHashes(@Value("${operator.cache.live-spec-hashes}") int maxSize) {
+    return new GenerationCache<>(maxSize);
+  }
+
+  @Bean
+  public ReconcileTracer getReconcileTracer(@Value("${operator.tracing.buffer-size}") int bufferSize) {
+    return new ReconcileTracer(bufferSize);
+  }
+
+  @Bean
+  public ReconcilesEndpoint getReconcilesEndpoint(@Autowired ReconcileTracer tracer) {
+    return new ReconcilesEndpoint(tracer);
+  }
+
+  @Bean
+  public DummyEventHandler getDummyEventHandler(@Qualifier("operator.queue") WorkQueue<String> queue,
+                                               @Autowired Shard shard,
+                                               @Autowired GenerationCache<Dummy, Deployment> desiredDeployments) {
+    return new DummyEventHandler(queue, shard, desiredDeployments);
+  }
+
+  @Bean("operator.namespaces")
+  public List<String> getNamespaces(@Value("${operator.namespaces}") String namespaces) {
+    return Arrays.stream(namespaces.split(","))
+                 .map(String::trim)
+                 .filter(namespace -> !namespace.isEmpty())
+                 .distinct()
+                 .collect(Collectors.toList());
+  }
+
+  @Bean("operator.dummyInformers")
+  public List<SharedIndexInformer<Dummy>> createDummyInformers(@Autowired KubernetesClient client,
+                                                               @Autowired DummyEventHandler dummyEventHandler,
+                                                               @Qualifier("operator.namespaces") List<String> namespaces,
+                                                               @Value("#{${operator.resync.period}}") long resync) {
+    MixedOperation<Dummy, DummyList, Resource<Dummy>> dummies = client.customResources(Dummy.class, DummyList.class);
+    if (namespaces.isEmpty()) {
+      return List.of(createInformer(Dummy.class, dummies.inAnyNamespace(), UnaryOperator.identity(), null,
+                                    dummyEventHandler, Map.of(), resync));
+    }
+    return namespaces.stream()
+                     .map(namespace -> createInformer(Dummy.class, dummies.inNamespace(namespace), UnaryOperator.identity(),
+                                                      namespace, dummyEventHandler, Map.of(), resync))
+                     .collect(Collectors.toList());
   }
 
   @Bean
-  public Lister<Dummy> createDummyLister(@Autowired KubernetesClient client,
-                                         @Autowired DummyEventHandler dummyEventHandler,
-                                         @Value("#{${operator.resync.period}}") long resync) {
-    SharedIndexInformer<Dummy> dummyInformer = client.customResources(Dummy.class, DummyList.class)
-                                                .inAnyNamespace()
-                                                .inform(dummyEventHandler, resync);
+  public DriftAuditor getDriftAuditor(@Qualifier("operator.queue") WorkQueue<String> queue,
+                                      @Autowired Shard shard,
+                                      @Qualifier("operator.dummyInformers") List<SharedIndexInformer<Dummy>> dummyInformers,
+                                      @Value("${operator.audit.period}") long period,
+                                      @Value("${operator.audit.wheel-size}") int wheelSize) {
+    DriftAuditor driftAuditor = new DriftAuditor(queue, shard, period, wheelSize);
+    if (period > 0) {
+      dummyInformers.forEach(informer -> informer.addEventHandler(driftAuditor));
+      driftAuditor.start();
+    }
+    return driftAuditor;
+  }
 
-    while (!dummyInformer.hasSynced()) {};
-    return new Lister<>(dummyInformer.getIndexer());
+  @Bean
+  public Lister<Dummy> createDummyLister(@Qualifier("operator.dummyInformers") List<SharedIndexInformer<Dummy>> dummyInformers,
+                                         @Qualifier("operator.namespaces") List<String> namespaces) {
+    return new Lister<>(getIndexer(dummyInformers, namespaces));
   }
 
   @Bean
-  public DeploymentEventHandler geDeploymentEventHandler(@Qualifier("operator.queue") Queue<String> queue,
-                                                         @Qualifier("operator.kindName") String kindName) {
-    return new DeploymentEventHandler(queue, kindName);
+  public DeploymentEventHandler geDeploymentEventHandler(@Qualifier("operator.queue") WorkQueue<String> queue,
+                                                         @Qualifier("operator.kindName") String kindName,
+                                                         @Autowired Shard shard,
+                                                         @Autowired OperatorMetrics operatorMetrics) {
+    return new DeploymentEventHandler(queue, kindName, shard, operatorMetrics);
+  }
+
+  @Bean("operator.deploymentInformers")
+  public List<SharedIndexInformer<Deployment>> createDeploymentInformers(@Autowired KubernetesClient client,
+                                                                         @Autowired DeploymentEventHandler deploymentEventHandler,
+                                                                         @Qualifier("operator.kindName") String kindName,
+                                                                         @Qualifier("operator.namespaces") List<String> namespaces,
+                                                                         @Value("#{${operator.resync.period}}") long resync,
+                                                                         @Value("${operator.cache.slim-deployments}") boolean slim) {
+    MixedOperation<Deployment, DeploymentList, RollableScalableResource<Deployment>> deployments = client.apps().deployments();
+    if (namespaces.isEmpty()) {
+      return List.of(informDeployments(deployments.inAnyNamespace().withLabel(kindName), null,
+                                       deploymentEventHandler, kindName, 2 * resync, slim));
+    }
+    return namespaces.stream()
+                     .map(namespace -> informDeployments(deployments.inNamespace(namespace).withLabel(kindName), namespace,
+                                                         deploymentEventHandler, kindName, 2 * resync, slim))
+                     .collect(Collectors.toList());
   }
 
   @Bean
-  public Lister<Deployment> createDeploymentLister(@Autowired KubernetesClient client,
-                                                   @Autowired DeploymentEventHandler deploymentEventHandler,
-                                                   @Value("#{${operator.resync.period}}") long resync) {
-    SharedIndexInformer<Deployment> deploymentInformer = client.apps().deployments()
-                                                        .inAnyNamespace()
-                                                        .inform(deploymentEventHandler, 2 * resync);
-
-    while (!deploymentInformer.hasSynced()) {};
-    return new Lister<>(deploymentInformer.getIndexer());
+  public Indexer<Deployment> createDeploymentIndexer(@Qualifier("operator.deploymentInformers") List<SharedIndexInformer<Deployment>> deploymentInformers,
+                                                     @Qualifier("operator.namespaces") List<String> namespaces) {
+    return getIndexer(deploymentInformers, namespaces);
+  }
+
+  @Bean("caches")
+  public CacheSync getCacheSync(@Qualifier("operator.dummyInformers") List<SharedIndexInformer<Dummy>> dummyInformers,
+                                @Qualifier("operator.deploymentInformers") List<SharedIndexInformer<Deployment>> deploymentInformers,
+                                @Value("${operator.cache.sync-timeout}") long timeout) {
+    List<SharedIndexInformer<?>> informers = new ArrayList<>(dummyInformers);
+    informers.addAll(deploymentInformers);
+    CacheSync cacheSync = new CacheSync(informers, timeout);
+    cacheSync.start();
+    return cacheSync;
+  }
+
+  private static SharedIndexInformer<Deployment> informDeployments(FilterWatchListDeletable<Deployment, DeploymentList> deployments,
+                                                                   String namespace,
+                                                                   DeploymentEventHandler deploymentEventHandler,
+                                                                   String kindName,
+                                                                   long resync,
+                                                                   boolean slim) {
+    UnaryOperator<Deployment> projection = slim
+        ? DeploymentProjection.getProjection(List.of(DummyController.SPEC_HASH_ANNOTATION))
+        : UnaryOperator.identity();
+    return createInformer(Deployment.class, deployments, projection, namespace, deploymentEventHandler,
+                          DeploymentIndexers.getIndexers(kindName), resync);
+  }
+
+  /**
+   * Create an informer without starting it, unlike inform() which runs the initial list before returning.
+   * The informers are started together by CacheSync.
+   */
+  private static <T extends HasMetadata, L extends KubernetesResourceList<T>> SharedIndexInformer<T> createInformer(
+      Class<T> type,
+      FilterWatchListDeletable<T, L> operation,
+      UnaryOperator<T> projection,
+      String namespace,
+      ResourceEventHandler<T> eventHandler,
+      Map<String, Function<T, List<String>>> indexers,
+      long resync) {
+    DefaultSharedIndexInformer<T, L> informer = new DefaultSharedIndexInformer<>(
+        type, new ProjectingListerWatcher<>(operation, projection), resync,
+        new OperationContext().withNamespace(namespace), Runnable::run);
+    if (!indexers.isEmpty()) {
+      informer.addIndexers(indexers);
+    }
+    informer.addEventHandler(eventHandler);
+    return informer;
+  }
+
+  private static <T extends HasMetadata> Indexer<T> getIndexer(List<SharedIndexInformer<T>> informers, List<String> namespaces) {
+    if (namespaces.isEmpty()) {
+      return informers.get(0).getIndexer();
+    }
+    Map<String, Indexer<T>> indexers = new HashMap<>();
+    for (int i = 0; i < namespaces.size(); i++) {
+      indexers.put(namespaces.get(i), informers.get(i).getIndexer());
+    }
+    return new NamespacedIndexer<>(indexers);
   }
 }
@@ -1,20 +1,54 @@
 package com.k8s.dummy.operator.controller;
 
-import com.k8s.dummy.operator.controller.client.EnhancedClient;
+import com.k8s.dummy.operator.controller.cache.CacheSync;
+import com.k8s.dummy.operator.controller.cache.CachedValue;
+import com.k8s.dummy.operator.controller.cache.DeploymentIndexers;
+import com.k8s.dummy.operator.controller.cache.GenerationCache;
+import com.k8s.dummy.operator.controller.client.AsyncEnhancedClient;
+import com.k8s.dummy.operator.controller.events.EventRecorder;
+import com.k8s.dummy.operator.controller.metrics.OperatorMetrics;
+import com.k8s.dummy.operator.controller.queue.Lane;
+import com.k8s.dummy.operator.controller.queue.RateLimitingQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
+import com.k8s.dummy.operator.controller.tracing.ReconcileTrace;
+import com.k8s.dummy.operator.controller.tracing.ReconcileTracer;
 import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummySpec;
 import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.PodSpec;
 import io.fabric8.kubernetes.api.model.PodTemplateSpec;
 import io.fabric8.kubernetes.api.model.PodTemplateSpecBuilder;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.DeploymentSpec;
 import io.fabric8.kubernetes.api.model.events.v1.Event;
 import io.fabric8.kubernetes.api.model.events.v1.EventBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import io.fabric8.kubernetes.client.informers.cache.Indexer;
 import io.fabric8.kubernetes.client.informers.cache.Lister;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.BlockingQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -33,101 +67,476 @@ public class DummyController implements Runnable, HealthIndicator {
   private static final Logger LOGGER = LoggerFactory.getLogger(DummyController.class);
   private static final DateTimeFormatter k8sMicroTime =
       DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'.'SSSSSSXXX");
+  public static final String SPEC_HASH_ANNOTATION =
+      HasMetadata.getGroup(Dummy.class) + "/spec-hash";
+  private static final String SPEC_HASH_VERSION = "2";
+  private static final String IMAGE = "busybox";
+  private static final String COMMAND = "/bin/sh";
+  private static final String CONTAINER_SUFFIX = "-container";
 
-  private final EnhancedClient enhancedClient;
+  private final AsyncEnhancedClient<?> asyncClient;
+  private final EventRecorder eventRecorder;
   private final String kindName;
   private final Map<String, String> operatorLabels;
-  private final BlockingQueue<String> queue;
+  private final RateLimitingQueue<String> queue;
+  private final int maxRetries;
+  private final CachedValue<Boolean> crdAvailable;
 
   private final Lister<Dummy> dummyLister;
-  private final Lister<Deployment> deployLister;
+  private final Indexer<Deployment> deployIndexer;
+  private final GenerationCache<Dummy, Deployment> desiredDeployments;
+  private final GenerationCache<Deployment, String> liveSpecHashes;
+  private final CacheSync cacheSync;
+  private final OperatorMetrics operatorMetrics;
+  private final ReconcileTracer tracer;
+  private final Shard shard;
+  private final int startupParallelism;
+  private final AtomicBoolean initialReconcileStarted = new AtomicBoolean();
+  private final CompletableFuture<Void> initialReconcileDone = new CompletableFuture<>();
 
   /**
-   * Create a DummyOperator object and launch a thread executing the run method.
+   * Create a DummyOperator object and launch as many threads executing the run method
+   * as the number of workers. Workers share the queue, which never hands the same resource
+   * to two workers at once, so each resource is reconciled by a single worker at a time.
+   * Whenever the shard of this replica changes every Dummy of the new shard is queued.
+   * Once the caches are synced the Dummies are first reconciled in bulk (@see #method
+   * reconcileAll) unless the startup parallelism is 0.
    *
-   * @param enhancedClient client that follows an EnhancedClient interface
+   * @param asyncClient client sending the writes of the reconciles asynchronously
+   * @param eventRecorder recorder writing the events asynchronously
    * @param kindName custom resource kind name
    * @param operatorLabels labels to add for events
-   * @param queue a blocking queue from which will receive the resource names to reconcile
+   * @param queue a rate limiting queue from which will receive the resource names to reconcile
    * @param dummyLister a lister with Dummy objects
-   * @param deployLister a lister with Deployment objects
-   * @param asyncTaskExecuter a task executer to start a thread executing this object
+   * @param deployIndexer an indexer with Deployment objects
+   * @param desiredDeployments desired Deployments by Dummy UID and generation
+   * @param liveSpecHashes spec hashes of the live Deployments by UID and generation
+   * @param cacheSync tracks whether the Dummy and Deployment caches are synced
+   * @param operatorMetrics meters for the control loop
+   * @param tracer keeps the traces of the reconciles of the control loop
+   * @param shard the Dummy resources this replica reconciles
+   * @param asyncTaskExecuter a task executer to start the threads executing this object
+   * @param workers number of threads reconciling resources in parallel
+   * @param maxRetries number of times a failed resource is requeued before being dropped
+   * @param healthTtl milliseconds during which the result of the health check is reused
+   * @param startupParallelism threads planning the initial reconcile, 0 to skip it
    */
-  public DummyController(@Autowired EnhancedClient enhancedClient,
+  public DummyController(@Autowired AsyncEnhancedClient<?> asyncClient,
+                       @Autowired EventRecorder eventRecorder,
                        @Qualifier("operator.kindName") String kindName,
                        @Value("#{${operator.labels}}") Map<String, String> operatorLabels,
-                       @Qualifier("operator.queue") BlockingQueue<String> queue,
+                       @Qualifier("operator.queue") RateLimitingQueue<String> queue,
                        @Autowired Lister<Dummy> dummyLister,
-                       @Autowired Lister<Deployment> deployLister,
-                       @Autowired AsyncTaskExecutor asyncTaskExecuter) {
-    this.enhancedClient = enhancedClient;
+                       @Autowired Indexer<Deployment> deployIndexer,
+                       @Autowired GenerationCache<Dummy, Deployment> desiredDeployments,
+                       @Autowired GenerationCache<Deployment, String> liveSpecHashes,
+                       @Autowired CacheSync cacheSync,
+                       @Autowired OperatorMetrics operatorMetrics,
+                       @Autowired ReconcileTracer tracer,
+                       @Autowired Shard shard,
+                       @Autowired AsyncTaskExecutor asyncTaskExecuter,
+                       @Value("${operator.workers}") int workers,
+                       @Value("${operator.queue.max-retries}") int maxRetries,
+                       @Value("${operator.health.ttl}") long healthTtl,
+                       @Value("${operator.startup.parallelism}") int startupParallelism) {
+    this.asyncClient = asyncClient;
+    this.eventRecorder = eventRecorder;
     this.kindName = kindName;
     this.operatorLabels = operatorLabels;
     this.queue = queue;
     this.dummyLister = dummyLister;
-    this.deployLister = deployLister;
-    asyncTaskExecuter.execute(this);
+    this.deployIndexer = deployIndexer;
+    this.desiredDeployments = desiredDeployments;
+    this.liveSpecHashes = liveSpecHashes;
+    this.cacheSync = cacheSync;
+    this.operatorMetrics = operatorMetrics;
+    this.tracer = tracer;
+    this.shard = shard;
+    this.maxRetries = maxRetries;
+    this.startupParallelism = startupParallelism;
+    this.crdAvailable = new CachedValue<>(
+        () -> asyncClient.getEnhancedClient().checkHealthiness(kindName), healthTtl);
+    shard.addRebalanceListener(this::queueShard);
+    for (int i = 0; i < workers; i++) {
+      asyncTaskExecuter.execute(this);
+    }
+  }
+
+  /**
+   * Queue every cached Dummy that belongs to the shard of this replica.
+   */
+  public void queueShard() {
+    dummyLister.list().stream()
+               .map(this::getKey)
+               .filter(shard::owns)
+               .forEach(queue::add);
   }
 
   @Override
   public Health health() {
     String details = "Dummy Custom Resource Definition";
-    if (enhancedClient.checkHealthiness(kindName)) {
+    if (crdAvailable.get()) {
       return Health.up().withDetail(details, "Available").build();
     }
     return Health.down().withDetail(details, "Not Available").build();
   }
 
+  /**
+   * Wait for the caches to be synced and then process resources from the queue forever.
+   * The first worker runs the initial reconcile meanwhile the others wait for it.
+   * If the caches do not sync within the timeout the worker logs it and keeps waiting, since
+   * the informers keep retrying, and the replica stays not ready meanwhile.
+   */
   @Override
   public void run() {
-    LOGGER.info("Starting Dummy controller");
+    try {
+      while (!cacheSync.awaitSynced()) {
+        LOGGER.warn("Caches not synced yet, worker {} keeps waiting",
+                    Thread.currentThread().getName());
+      }
+      awaitInitialReconcile();
+    } catch (InterruptedException e) {
+      LOGGER.error("Interrupted while waiting for caches {}", e.getMessage());
+      return;
+    }
+    LOGGER.info("Starting Dummy controller worker {}", Thread.currentThread().getName());
     while (true) {
       try {
         controlLoop();
       } catch (InterruptedException e) {
         LOGGER.error("Error while waiting {}", e.getMessage());
+      } catch (RuntimeException e) {
+        LOGGER.error("Error while reconciling", e);
       }
     }
   }
 
+  private void awaitInitialReconcile() throws InterruptedException {
+    if (startupParallelism <= 0) {
+      return;
+    }
+    if (!initialReconcileStarted.compareAndSet(false, true)) {
+      try {
+        initialReconcileDone.get();
+      } catch (ExecutionException e) {
+        LOGGER.error("Initial reconcile failed", e.getCause());
+      }
+      return;
+    }
+    try {
+      reconcileAll(startupParallelism);
+    } catch (RuntimeException e) {
+      LOGGER.error("Initial reconcile failed, leaving the Dummies to the queue", e);
+    } finally {
+      initialReconcileDone.complete(null);
+    }
+  }
+
+  /**
+   * Reconcile every cached Dummy of the shard at once instead of one queued key at a time.
+   * The Dummies are taken out of the queue, the plans of all of them (@see #method plan) are
+   * computed in parallel on a fork-join pool and then applied, the client limiting the writes
+   * in flight. A Dummy queued again in the meantime or whose plan or writes failed is left to
+   * the queue, which reconciles it as usual.
+   * Each reconcile is measured and traced like the ones of the control loop, from the start of
+   * its plan to the end of its writes.
+   *
+   * @param parallelism threads planning the reconciles
+   * @return number of Dummies by outcome, including error
+   * @throws InterruptedException when current thread is interrupted
+   */
+  public Map<String, Long> reconcileAll(int parallelism) throws InterruptedException {
+    final long start = System.nanoTime();
+    List<Dummy> dummies = dummyLister.list().stream()
+                                     .filter(dummy -> {
+                                       String key = getKey(dummy);
+                                       return shard.owns(key) && queue.remove(key);
+                                     })
+                                     .collect(Collectors.toList());
+    ForkJoinPool pool = new ForkJoinPool(parallelism);
+    List<BulkReconcile> plans;
+    try {
+      plans = pool.submit(() -> dummies.parallelStream()
+                                       .map(this::planOrRequeue)
+                                       .filter(Objects::nonNull)
+                                       .collect(Collectors.toList()))
+                  .get();
+    } catch (InterruptedException e) {
+      dummies.forEach(dummy -> queue.add(getKey(dummy)));
+      throw e;
+    } catch (ExecutionException e) {
+      dummies.forEach(dummy -> queue.add(getKey(dummy)));
+      throw new IllegalStateException(e.getCause());
+    } finally {
+      pool.shutdown();
+    }
+    final long planned = System.nanoTime();
+    List<CompletableFuture<String>> outcomes = plans.stream()
+                                                    .map(this::applyOrRequeue)
+                                                    .collect(Collectors.toList());
+    Map<String, Long> summary = outcomes.stream()
+        .map(CompletableFuture::join)
+        .collect(Collectors.groupingBy(Function.identity(), TreeMap::new,
+                                       Collectors.counting()));
+    long failed = dummies.size() - plans.size();
+    if (failed > 0) {
+      summary.merge(OperatorMetrics.ERROR, failed, Long::sum);
+    }
+    LOGGER.info("Initial reconcile of {} dummies planned in {} ms and applied in {} ms: {}",
+                dummies.size(), (planned - start) / 1000000,
+                (System.nanoTime() - planned) / 1000000, summary);
+    return summary;
+  }
+
+  private BulkReconcile planOrRequeue(Dummy dummy) {
+    long start = System.nanoTime();
+    ReconcileTrace trace = tracer.start(getKey(dummy));
+    try {
+      return new BulkReconcile(plan(dummy, false, trace), trace, start);
+    } catch (RuntimeException e) {
+      finishReconcile(trace, OperatorMetrics.ERROR, start);
+      requeue(getKey(dummy), e);
+      return null;
+    }
+  }
+
+  private CompletableFuture<String> applyOrRequeue(BulkReconcile reconcile) {
+    CompletableFuture<String> outcome;
+    try {
+      outcome = apply(reconcile.plan, reconcile.trace).exceptionally(e -> {
+        requeue(getKey(reconcile.plan.getDummy()), e);
+        return OperatorMetrics.ERROR;
+      });
+    } catch (RuntimeException e) {
+      requeue(getKey(reconcile.plan.getDummy()), e);
+      outcome = CompletableFuture.completedFuture(OperatorMetrics.ERROR);
+    }
+    return outcome.thenApply(result -> {
+      finishReconcile(reconcile.trace, result, reconcile.start);
+      return result;
+    });
+  }
+
+  private void finishReconcile(ReconcileTrace trace, String outcome, long start) {
+    operatorMetrics.recordReconcile(outcome, System.nanoTime() - start);
+    trace.finish(outcome);
+    tracer.record(trace);
+  }
+
+  private void requeue(String dummyKey, Throwable error) {
+    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+    LOGGER.warn("Error in the initial reconcile of {}, queuing it: {}", dummyKey,
+                cause.getMessage());
+    queue.addRateLimited(dummyKey);
+  }
+
+  private String getKey(Dummy dummy) {
+    return Cache.namespaceKeyFunc(dummy.getMetaspace(), dummy.getMetaName());
+  }
+
   /** 
    * Control loop which takes the next resource from queue and if a Dummy
    * object exists in cache it calls the reconcile method. Other wise does nothing.
+   * Resources that moved to the shard of another replica since being queued are skipped.
+   * Drift audits always compare the deployment with the desired one, even when the status
+   * reports it as converged.
+   * If the reconcile fails because of the API server the resource is requeued with
+   * a per resource exponential backoff, up to a maximum number of retries.
+   * The resource is always marked as done so it can be queued again.
+   * Each reconcile is traced, from the time the resource was added to the queue to the end of
+   * its writes (@see ReconcileTracer).
    *
    * @throws InterruptedException when current thread is interrupted
    */
   public void controlLoop() throws InterruptedException {
     String dummyKey = queue.take();
-    Optional.ofNullable(dummyLister.get(dummyKey))
-        .ifPresentOrElse(
-            this::reconcile,
-            () -> LOGGER.info("Dummy resource not in cache")
-        );
+    long start = System.nanoTime();
+    ReconcileTrace trace = tracer.start(dummyKey);
+    Optional.ofNullable(queue.getAddedAt(dummyKey))
+            .ifPresent(added -> trace.addSpan("queue.wait", added, start));
+    boolean audit = queue.getLane(dummyKey) == Lane.AUDIT;
+    try {
+      if (!shard.owns(dummyKey)) {
+        LOGGER.info("Dummy resource {} not in shard", dummyKey);
+        queue.forget(dummyKey);
+        return;
+      }
+      Optional<Dummy> cached = Optional.ofNullable(dummyLister.get(dummyKey));
+      trace.addSpan("dummy.lookup", start, System.nanoTime());
+      cached.ifPresentOrElse(
+          dummy -> {
+            finishReconcile(trace, reconcile(dummy, audit, trace), start);
+          },
+          () -> LOGGER.info("Dummy resource not in cache")
+      );
+      queue.forget(dummyKey);
+    } catch (KubernetesClientException e) {
+      finishReconcile(trace, OperatorMetrics.ERROR, start);
+      handleError(dummyKey, e);
+    } finally {
+      queue.done(dummyKey);
+    }
+  }
+
+
+  private void handleError(String dummyKey, KubernetesClientException e) {
+    if (queue.numRequeues(dummyKey) < maxRetries) {
+      LOGGER.warn("Error reconciling {}, requeuing: {}", dummyKey, e.getMessage());
+      queue.addRateLimited(dummyKey);
+      return;
+    }
+    LOGGER.error("Dropping {} after {} retries: {}", dummyKey, maxRetries, e.getMessage());
+    queue.forget(dummyKey);
   }
 
 
   /**
-   * Retrieve the deployment associated with the Dummy object and if it does not exist create it,
-   * if it exists, compare with the desired state and edit the deployment if they do not match.
+   * Reconcile a Dummy (@see #method plan) and wait for its writes (@see #method apply).
    *
    * @param dummy Dummy object
+   * @param audit whether the deployment is compared even if the status reports it as converged
+   * @param trace trace of the reconcile
+   * @return the outcome of the reconcile, created, edited or no-op
    */
-  private void reconcile(Dummy dummy) {
-    Optional<Deployment> deployment = deployLister.list().stream()
-                    .filter(deploy -> deploy.getMetadata().getName().equals(dummy.getMetaName()))
-                    .findAny();
-    deployment.ifPresentOrElse(deploy -> {
-      PodTemplateSpec desiredPodTemplateSpec = generatePodTemplateSpec(dummy);
-      if (!isDesiredDeployment(deploy, desiredPodTemplateSpec, dummy.getSpec().getReplicas())) {
-        enhancedClient.editDeployment(dummy, desiredPodTemplateSpec);
-        enhancedClient.updateStatus(updateStatus(dummy));
-        enhancedClient.addEvent(generateEvent(dummy, "editing"));
+  private String reconcile(Dummy dummy, boolean audit, ReconcileTrace trace) {
+    try {
+      return apply(plan(dummy, audit, trace), trace).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
       }
-    }, () -> {
-        enhancedClient.addDeployment(generateDeployment(dummy));
-        enhancedClient.updateStatus(updateStatus(dummy));
-        enhancedClient.addEvent(generateEvent(dummy, "creating"));
-      });
+      throw e;
+    }
+  }
+
+
+  /**
+   * Retrieve the deployment associated with the Dummy object and plan to create it if it does
+   * not exist, if it exists, compare its spec hash with the desired one and plan to edit the
+   * deployment if they do not match. Nothing is sent to the API server.
+   * The desired deployment is only generated once per Dummy generation, the reconciles of an
+   * unchanged Dummy reuse it.
+   * A Dummy whose status shows the current generation was applied, and whose deployment still
+   * carries the spec hash recorded in the status, is not compared at all, so the reconciles
+   * queued by a restart cost neither API writes nor generating the desired deployment.
+   * Creating or editing the deployment always writes the status, which counts the change.
+   * When the deployment is already the desired one only the observed generation and spec hash
+   * of an existing status are brought up to date, and nothing is written if they already are.
+   *
+   * @param dummy Dummy object
+   * @param audit whether the deployment is compared even if the status reports it as converged
+   * @return ReconcilePlan
+   */
+  public ReconcilePlan plan(Dummy dummy, boolean audit) {
+    return plan(dummy, audit, ReconcileTrace.NOOP);
+  }
+
+
+  private ReconcilePlan plan(Dummy dummy, boolean audit, ReconcileTrace trace) {
+    long lookup = System.nanoTime();
+    Optional<Deployment> deployment = getDeployment(dummy);
+    long generation = System.nanoTime();
+    trace.addSpan("deployment.lookup", lookup, generation);
+    if (!audit && deployment.isPresent() && isObserved(dummy, deployment.get())) {
+      return new ReconcilePlan(dummy, OperatorMetrics.NOOP, null, null);
+    }
+    Deployment desiredDeployment = desiredDeployments.get(dummy, this::generateDeployment);
+    trace.addSpan("deployment.generate", generation, System.nanoTime());
+    String specHash = desiredDeployment.getMetadata().getAnnotations().get(SPEC_HASH_ANNOTATION);
+    if (deployment.isEmpty()) {
+      return new ReconcilePlan(dummy, OperatorMetrics.CREATED, desiredDeployment,
+                               updateStatus(dummy, specHash));
+    }
+    if (isDesiredDeployment(deployment.get(), specHash)) {
+      DummyStatus status = dummy.getStatus() != null
+          ? getChangedStatus(dummy, observeStatus(dummy, specHash)) : null;
+      return new ReconcilePlan(dummy, OperatorMetrics.NOOP, null, status);
+    }
+    return new ReconcilePlan(dummy, OperatorMetrics.EDITED, desiredDeployment,
+                             updateStatus(dummy, specHash));
+  }
+
+
+  /**
+   * Send the writes of a plan. The status is only written once the deployment write
+   * succeeded, so a failed write is never recorded as applied, and the event is only recorded
+   * once both writes succeeded. The status write is sent from the I/O thread that completed
+   * the deployment write, where the client queues it rather than waiting for the limit of
+   * writes in flight. The writes of different Dummies still overlap.
+   *
+   * @param plan writes planned for a Dummy (@see #method plan)
+   * @return CompletableFuture completed with the outcome of the reconcile once the writes are done
+   */
+  public CompletableFuture<String> apply(ReconcilePlan plan) {
+    return apply(plan, ReconcileTrace.NOOP);
+  }
+
+
+  private CompletableFuture<String> apply(ReconcilePlan plan, ReconcileTrace trace) {
+    Dummy dummy = plan.getDummy();
+    String action;
+    CompletableFuture<Void> deployment;
+    switch (plan.getOutcome()) {
+      case OperatorMetrics.CREATED:
+        action = "creating";
+        deployment = traceWrite(trace, "client.addDeployment",
+                                () -> asyncClient.addDeployment(plan.getDeployment()));
+        break;
+      case OperatorMetrics.EDITED:
+        action = "editing";
+        deployment = traceWrite(trace, "client.editDeployment",
+                                () -> asyncClient.editDeployment(plan.getDeployment()));
+        break;
+      default:
+        action = null;
+        deployment = CompletableFuture.completedFuture(null);
+    }
+    if (plan.getStatus() != null) {
+      deployment = deployment.thenCompose(
+          written -> traceWrite(trace, "client.updateStatus",
+                                () -> asyncClient.updateStatus(dummy, plan.getStatus())));
+    }
+    return deployment.thenApply(written -> {
+      if (action != null) {
+        eventRecorder.record(generateEvent(dummy, action));
+      }
+      return plan.getOutcome();
+    });
+  }
+
+
+  /**
+   * Send a write and add a span from the time it is sent, which includes the wait for the
+   * client, to the time it completes, successfully or not.
+   *
+   * @param trace trace of the reconcile
+   * @param name name of the span
+   * @param write sends the write
+   * @return CompletableFuture completed once the write completed and its span was added
+   */
+  private CompletableFuture<Void> traceWrite(ReconcileTrace trace, String name,
+                                             Supplier<CompletableFuture<Void>> write) {
+    long start = System.nanoTime();
+    return write.get().whenComplete((written, error) -> trace.addSpan(name, start,
+                                                                      System.nanoTime()));
+  }
+
+
+  /**
+   * Retrieve the deployment owned by the Dummy object from the owner UID index and,
+   * if there is none, the deployment with the same namespace and name.
+   *
+   * @param dummy Dummy object
+   * @return Optional with the Deployment
+   */
+  public Optional<Deployment> getDeployment(Dummy dummy) {
+    List<Deployment> owned = deployIndexer.byIndex(DeploymentIndexers.BY_OWNER_UID,
+                                                   dummy.getMetadata().getUid());
+    if (!owned.isEmpty()) {
+      return Optional.of(owned.get(0));
+    }
+    return Optional.ofNullable(
+        deployIndexer.getByKey(Cache.namespaceKeyFunc(dummy.getMetaspace(), dummy.getMetaName())));
   }
 
 
@@ -135,6 +544,7 @@ public class DummyController implements Runnable, HealthIndicator {
    * Generate a Deployment using the Dummy object and the generated pod
    * template (@see #method generatePodTemplateSpec).
    * Uses the kindName and the dummy name to label and as the selector.
+   * It is annotated with the hash of the desired spec (@see #method generateSpecHash).
    *
    * @param dummy Dummy object
    * @return Deployment
@@ -145,6 +555,7 @@ public class DummyController implements Runnable, HealthIndicator {
                   .withName(dummy.getMetaName())
                   .withNamespace(dummy.getMetaspace())
                   .addToLabels(kindName, dummy.getMetaName())
+                  .addToAnnotations(SPEC_HASH_ANNOTATION, generateSpecHash(dummy))
                   .addToOwnerReferences(dummy.getOwnerReference())
                   .endMetadata()
                 .withNewSpec()
@@ -167,39 +578,165 @@ public class DummyController implements Runnable, HealthIndicator {
    * @return PodTemplateSpec
    */
   public PodTemplateSpec generatePodTemplateSpec(Dummy dummy) {
-    String[] args = {"-c", String.format(
-                        "/bin/echo \"%s\n%s\"; /bin/sleep %d",
-                        dummy.getSpec().getQuote(),
-                        String.join(" ", dummy.getSpec().getExtra()), dummy.getSpec().getSleep())};
     return new PodTemplateSpecBuilder()
                 .withNewMetadata()
                   .addToLabels(kindName, dummy.getMetaName())
                   .endMetadata()
                 .withNewSpec()
                   .addNewContainer()
-                    .withName(dummy.getMetaName() + "-container")
-                    .withImage("busybox")
-                    .withCommand("/bin/sh")
-                    .withArgs(args)
+                    .withName(dummy.getMetaName() + CONTAINER_SUFFIX)
+                    .withImage(IMAGE)
+                    .withCommand(COMMAND)
+                    .withArgs(generateArgs(dummy))
                     .endContainer()
                   .endSpec()
                 .build();
   }
 
 
+  private String[] generateArgs(Dummy dummy) {
+    return new String[] {"-c", String.format(
+                            "/bin/echo \"%s\n%s\"; /bin/sleep %d",
+                            dummy.getSpec().getQuote(),
+                            String.join(" ", dummy.getSpec().getExtra()),
+                            dummy.getSpec().getSleep())};
+  }
+
+
   /**
-   * Create status if @param dummy does not have it or increment the timesChanged attribute
-   * in the DummyStatus object.
+   * Generate a hash of everything the operator sets in the deployment spec: the replicas, the
+   * pod template label and the name, image, command and args of the container. It is computed
+   * from the Dummy attributes without generating the deployment and equals the hash of the live
+   * deployment (@see #method getSpecHash) as long as nobody changed those fields.
+   * The version must change whenever the way the deployment is generated changes. Dummies whose
+   * status reports them as converged pick up a new version on their next drift audit.
    *
    * @param dummy Dummy object
-   * @return Dummy
+   * @return String with the hexadecimal hash
    */
-  public Dummy updateStatus(Dummy dummy) {
-    Optional<DummyStatus> oldStatus = Optional.ofNullable(dummy.getStatus());
-    oldStatus.ifPresentOrElse(
-        DummyStatus::incrementTimesChanged,
-        () -> dummy.setStatus(new DummyStatus()));
-    return dummy;
+  public String generateSpecHash(Dummy dummy) {
+    return hashSpec(dummy.getSpec().getReplicas(), dummy.getMetaName(),
+                    dummy.getMetaName() + CONTAINER_SUFFIX, IMAGE, List.of(COMMAND),
+                    Arrays.asList(generateArgs(dummy)));
+  }
+
+
+  /**
+   * Generate the hash of the fields the operator sets (@see #method generateSpecHash) from
+   * the live state of a deployment, so hand edits of any of them are detected.
+   *
+   * @param deployment current state of the deployment
+   * @return String with the hexadecimal hash
+   */
+  public String getSpecHash(Deployment deployment) {
+    String containerName = deployment.getMetadata().getName() + CONTAINER_SUFFIX;
+    Optional<DeploymentSpec> spec = Optional.ofNullable(deployment.getSpec());
+    Optional<PodTemplateSpec> template = spec.map(DeploymentSpec::getTemplate);
+    Optional<Container> container = template.map(PodTemplateSpec::getSpec)
+                                            .map(PodSpec::getContainers)
+                                            .orElse(List.of())
+                                            .stream()
+                                            .filter(live -> containerName.equals(live.getName()))
+                                            .findFirst();
+    return hashSpec(spec.map(DeploymentSpec::getReplicas).orElse(null),
+                    template.map(PodTemplateSpec::getMetadata)
+                            .map(ObjectMeta::getLabels)
+                            .map(labels -> labels.get(kindName))
+                            .orElse(null),
+                    container.map(Container::getName).orElse(null),
+                    container.map(Container::getImage).orElse(null),
+                    container.map(Container::getCommand).orElse(List.of()),
+                    container.map(Container::getArgs).orElse(List.of()));
+  }
+
+
+  private String hashSpec(Integer replicas, String label, String containerName, String image,
+                          List<String> command, List<String> args) {
+    String fields = String.join("\u0000", SPEC_HASH_VERSION, kindName, String.valueOf(replicas),
+                                label, containerName, image, String.join("\u0001", command),
+                                String.join("\u0001", args));
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256")
+                                   .digest(fields.getBytes(StandardCharsets.UTF_8));
+      StringBuilder hash = new StringBuilder();
+      for (int i = 0; i < 8; i++) {
+        hash.append(String.format("%02x", digest[i]));
+      }
+      return hash.toString();
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+
+  /**
+   * Generate the desired status, a new status if @param dummy does not have it or a copy
+   * of it with the timesChanged attribute incremented. Both record the generation of the Dummy
+   * and the spec hash applied. The Dummy object is not modified since it belongs to the
+   * informer cache.
+   *
+   * @param dummy Dummy object
+   * @param specHash spec hash of the deployment applied
+   * @return DummyStatus
+   */
+  public DummyStatus updateStatus(Dummy dummy, String specHash) {
+    DummyStatus status = Optional.ofNullable(dummy.getStatus())
+                                 .map(oldStatus -> {
+                                   DummyStatus newStatus = new DummyStatus(oldStatus);
+                                   newStatus.incrementTimesChanged();
+                                   return newStatus;
+                                 })
+                                 .orElseGet(DummyStatus::new);
+    status.setObservedGeneration(dummy.getMetadata().getGeneration());
+    status.setSpecHash(specHash);
+    return status;
+  }
+
+
+  /**
+   * Generate a copy of the status of @param dummy recording its generation and the spec hash
+   * of its deployment, without counting a change.
+   *
+   * @param dummy Dummy object with a status
+   * @param specHash spec hash of the deployment
+   * @return DummyStatus
+   */
+  public DummyStatus observeStatus(Dummy dummy, String specHash) {
+    DummyStatus status = new DummyStatus(dummy.getStatus());
+    status.setObservedGeneration(dummy.getMetadata().getGeneration());
+    status.setSpecHash(specHash);
+    return status;
+  }
+
+
+  /**
+   * Check whether the status of the Dummy reports its current generation as applied and the
+   * live deployment still has the spec hash recorded in the status.
+   * Dummies without a generation are never reported as observed.
+   *
+   * @param dummy Dummy object
+   * @param deployment current state of the deployment
+   * @return boolean
+   */
+  public boolean isObserved(Dummy dummy, Deployment deployment) {
+    DummyStatus status = dummy.getStatus();
+    Long generation = dummy.getMetadata().getGeneration();
+    return status != null && status.getSpecHash() != null && generation != null
+           && generation.equals(status.getObservedGeneration())
+           && isDesiredDeployment(deployment, status.getSpecHash());
+  }
+
+
+  /**
+   * Keep the desired status only if it differs from the cached one, which can only happen
+   * when no change is counted (@see #method observeStatus).
+   *
+   * @param dummy Dummy object
+   * @param desiredStatus desired status
+   * @return the desired status, or null if there is nothing to write
+   */
+  private DummyStatus getChangedStatus(Dummy dummy, DummyStatus desiredStatus) {
+    return desiredStatus.equals(dummy.getStatus()) ? null : desiredStatus;
   }
 
 
@@ -232,19 +769,31 @@ public class DummyController implements Runnable, HealthIndicator {
 
 
   /**
-   * Compare if the number of replicas is the same and if the first container args
-   * is equal between desired podTemplate and current deployment state.
+   * Compare the hash of the fields the operator sets in the live deployment with the desired
+   * spec hash. The spec hash annotation is not trusted since hand edits leave it unchanged.
+   * Every edit of the deployment spec increments its generation, so the hash of the live
+   * deployment is only computed once per generation.
    *
    * @param deployment current state of the deployment
-   * @param podTemplateSpec desired pod template specification
-   * @param replicas desired number of replicas
+   * @param specHash desired spec hash
    * @return boolean
    */
-  public boolean isDesiredDeployment(Deployment deployment,
-                                     PodTemplateSpec podTemplateSpec,
-                                     int replicas) {
-    return deployment.getSpec().getReplicas() == replicas
-          && deployment.getSpec().getTemplate().getSpec().getContainers().get(0).getArgs()
-                        .equals(podTemplateSpec.getSpec().getContainers().get(0).getArgs());
+  public boolean isDesiredDeployment(Deployment deployment, String specHash) {
+    return specHash.equals(liveSpecHashes.get(deployment, this::getSpecHash));
+  }
+
+  /**
+   * A plan of the initial reconcile with its trace and the time its reconcile started.
+   */
+  private static final class BulkReconcile {
+    private final ReconcilePlan plan;
+    private final ReconcileTrace trace;
+    private final long start;
+
+    BulkReconcile(ReconcilePlan plan, ReconcileTrace trace, long start) {
+      this.plan = plan;
+      this.trace = trace;
+      this.start = start;
+    }
   }
 }
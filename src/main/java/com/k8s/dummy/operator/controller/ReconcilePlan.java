@@ -0,0 +1,48 @@
+package com.k8s.dummy.operator.controller;
+
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+
+/**
+ * The writes a reconcile of a Dummy needs, computed from the caches without sending anything.
+ * The outcome is created, edited or no-op (@see OperatorMetrics), the deployment is the one to
+ * create or edit, null for a no-op, and the status is the one to write, null if it is unchanged.
+ */
+public class ReconcilePlan {
+  private final Dummy dummy;
+  private final String outcome;
+  private final Deployment deployment;
+  private final DummyStatus status;
+
+  /**
+   * Create a ReconcilePlan.
+   *
+   * @param dummy Dummy object
+   * @param outcome outcome of the reconcile
+   * @param deployment desired Deployment to create or edit, null for a no-op
+   * @param status desired status to write, null if it is unchanged
+   */
+  public ReconcilePlan(Dummy dummy, String outcome, Deployment deployment, DummyStatus status) {
+    this.dummy = dummy;
+    this.outcome = outcome;
+    this.deployment = deployment;
+    this.status = status;
+  }
+
+  public Dummy getDummy() {
+    return dummy;
+  }
+
+  public String getOutcome() {
+    return outcome;
+  }
+
+  public Deployment getDeployment() {
+    return deployment;
+  }
+
+  public DummyStatus getStatus() {
+    return status;
+  }
+}
@@ -0,0 +1,134 @@
+package com.k8s.dummy.operator.controller.audit;
+
+import com.k8s.dummy.operator.controller.handlers.EventHandler;
+import com.k8s.dummy.operator.controller.queue.Lane;
+import com.k8s.dummy.operator.controller.queue.WorkQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Queues every Dummy once per audit period so drift on its Deployment is repaired even when
+ * no watch event reports it. The Dummies are kept on a timing wheel: the period is split in
+ * as many ticks as the wheel has slots, each Dummy stays in one slot and every tick queues the
+ * Dummies of the next slot. A Dummy goes to the less loaded of two random slots, so the audits
+ * are spread evenly over the period instead of arriving as one burst like informer resyncs.
+ * Audits wait in the least urgent lane of the queue.
+ * It is registered as an event handler of the Dummy informers to learn the Dummies.
+ */
+public class DriftAuditor extends EventHandler<Dummy> {
+  private static final Logger LOGGER = LoggerFactory.getLogger(DriftAuditor.class);
+
+  private final List<Set<String>> slots;
+  private final Map<String, Integer> slotByKey = new HashMap<>();
+  private final long tick;
+  private final ScheduledExecutorService scheduler;
+  private int cursor;
+
+  /**
+   * Create a DriftAuditor. It only queues Dummies after being started.
+   *
+   * @param queue queue where the audited Dummies are added
+   * @param shard the Dummy resources this replica reconciles
+   * @param period milliseconds between two audits of the same Dummy
+   * @param wheelSize number of slots of the wheel, a slot is queued every period / wheelSize
+   */
+  public DriftAuditor(WorkQueue<String> queue, Shard shard, long period, int wheelSize) {
+    super(queue, shard);
+    this.slots = new ArrayList<>(wheelSize);
+    for (int i = 0; i < wheelSize; i++) {
+      slots.add(new HashSet<>());
+    }
+    this.tick = Math.max(1, period / wheelSize);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "operator-drift-auditor");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public void start() {
+    scheduler.scheduleAtFixedRate(this::advance, tick, tick, TimeUnit.MILLISECONDS);
+  }
+
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  /**
+   * Place a Dummy on the wheel, unless it is already there.
+   *
+   * @param key resource key in the namespace/name format
+   */
+  public synchronized void track(String key) {
+    if (slotByKey.containsKey(key)) {
+      return;
+    }
+    int first = ThreadLocalRandom.current().nextInt(slots.size());
+    int second = ThreadLocalRandom.current().nextInt(slots.size());
+    int slot = slots.get(first).size() <= slots.get(second).size() ? first : second;
+    slots.get(slot).add(key);
+    slotByKey.put(key, slot);
+  }
+
+  /**
+   * Remove a Dummy from the wheel.
+   *
+   * @param key resource key in the namespace/name format
+   */
+  public synchronized void untrack(String key) {
+    Integer slot = slotByKey.remove(key);
+    if (slot != null) {
+      slots.get(slot).remove(key);
+    }
+  }
+
+  public synchronized int size() {
+    return slotByKey.size();
+  }
+
+  /**
+   * Move the wheel to the next slot and queue its Dummies.
+   * Errors are logged and never thrown, so the wheel keeps turning.
+   */
+  void advance() {
+    List<String> due;
+    int slot;
+    synchronized (this) {
+      cursor = (cursor + 1) % slots.size();
+      slot = cursor;
+      due = new ArrayList<>(slots.get(slot));
+    }
+    try {
+      due.forEach(key -> addToQueue(key, Lane.AUDIT));
+      LOGGER.debug("Audited {} dummies of slot {}", due.size(), slot);
+    } catch (RuntimeException e) {
+      LOGGER.error("Error while auditing dummies", e);
+    }
+  }
+
+  @Override
+  public void onAdd(Dummy dummy) {
+    track(getFqn(dummy.getMetaspace(), dummy.getMetaName()));
+  }
+
+  @Override
+  public void onUpdate(Dummy oldDummy, Dummy newDummy) {
+  }
+
+  @Override
+  public void onDelete(Dummy dummy, boolean deletedFinalStateUnknown) {
+    untrack(getFqn(dummy.getMetaspace(), dummy.getMetaName()));
+  }
+}
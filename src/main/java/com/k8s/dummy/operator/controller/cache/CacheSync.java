@@ -0,0 +1,99 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+
+/**
+ * Starts the informers and tracks whether their caches finished their initial list. Every
+ * informer lists on a thread of its own, so the lists run at once and a failed one does not
+ * stop the others nor the application, its cache just never syncs. The wait sleeps between
+ * checks, with a timeout, instead of spinning.
+ * Its health is down until the caches are synced, which makes the replica not ready without
+ * failing its liveness.
+ */
+public class CacheSync implements HealthIndicator {
+  private static final Logger LOGGER = LoggerFactory.getLogger(CacheSync.class);
+  private static final long MIN_CHECK_PERIOD = 10;
+  private static final long MAX_CHECK_PERIOD = 500;
+
+  private final List<SharedIndexInformer<?>> informers;
+  private final long timeout;
+
+  private volatile boolean synced = false;
+
+  /**
+   * Create a CacheSync for informers that are not started yet, see {@link #start()}.
+   *
+   * @param informers informers to wait for
+   * @param timeout maximum number of milliseconds to wait for the informers
+   */
+  public CacheSync(List<SharedIndexInformer<?>> informers, long timeout) {
+    this.informers = informers;
+    this.timeout = timeout;
+  }
+
+  /**
+   * Start every informer on a thread of its own. The initial list of an informer runs when
+   * it is started, this method does not wait for them.
+   */
+  public void start() {
+    for (int i = 0; i < informers.size(); i++) {
+      SharedIndexInformer<?> informer = informers.get(i);
+      Thread thread = new Thread(() -> {
+        try {
+          informer.run();
+        } catch (RuntimeException e) {
+          LOGGER.error("Error while starting informer", e);
+        }
+      }, "operator-informer-" + i);
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Check if every informer finished its initial list. Once they have it stays true.
+   *
+   * @return boolean
+   */
+  public boolean isSynced() {
+    if (!synced) {
+      synced = informers.stream().allMatch(SharedIndexInformer::hasSynced);
+    }
+    return synced;
+  }
+
+  @Override
+  public Health health() {
+    String details = "Caches";
+    if (isSynced()) {
+      return Health.up().withDetail(details, "Synced").build();
+    }
+    return Health.down().withDetail(details, "Not Synced").build();
+  }
+
+  /**
+   * Wait until every informer finished its initial list or the timeout ends.
+   *
+   * @return true if the informers are synced
+   * @throws InterruptedException when current thread is interrupted
+   */
+  public boolean awaitSynced() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout);
+    long checkPeriod = MIN_CHECK_PERIOD;
+    while (!isSynced()) {
+      long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+      if (remaining <= 0) {
+        return false;
+      }
+      Thread.sleep(Math.min(checkPeriod, remaining));
+      checkPeriod = Math.min(2 * checkPeriod, MAX_CHECK_PERIOD);
+    }
+    return true;
+  }
+}
@@ -0,0 +1,54 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A value computed by a supplier and kept in memory for a time to live. Only one thread
+ * computes the value when it expires, the others keep getting the previous value meanwhile.
+ */
+public class CachedValue<T> {
+  private final Supplier<T> supplier;
+  private final long ttl;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private volatile T value;
+  private volatile long expiresAt;
+
+  /**
+   * Create a cached value, computed the first time it is requested.
+   *
+   * @param supplier supplier computing the value
+   * @param ttl time to live in milliseconds
+   */
+  public CachedValue(Supplier<T> supplier, long ttl) {
+    this.supplier = supplier;
+    this.ttl = TimeUnit.MILLISECONDS.toNanos(ttl);
+  }
+
+  /**
+   * Get the value, computing it if it expired.
+   *
+   * @return T
+   */
+  public T get() {
+    if (value != null && System.nanoTime() - expiresAt < 0) {
+      return value;
+    }
+    if (value == null) {
+      lock.lock();
+    } else if (!lock.tryLock()) {
+      return value;
+    }
+    try {
+      if (value == null || System.nanoTime() - expiresAt >= 0) {
+        value = supplier.get();
+        expiresAt = System.nanoTime() + ttl;
+      }
+      return value;
+    } finally {
+      lock.unlock();
+    }
+  }
+}
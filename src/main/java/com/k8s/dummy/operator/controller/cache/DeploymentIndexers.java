@@ -0,0 +1,44 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import io.fabric8.kubernetes.api.model.OwnerReference;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Indexers added to the Deployment informer so the controller can find the Deployment owned
+ * by a Dummy without going through every cached Deployment. The lookup by namespace/name
+ * does not need an indexer since it is the key the informer store already uses.
+ */
+public final class DeploymentIndexers {
+  public static final String BY_OWNER_UID = "byOwnerUid";
+
+  private DeploymentIndexers() {
+  }
+
+  /**
+   * Create the indexers for the Deployment informer.
+   *
+   * @param kindName custom resource kind name
+   * @return Map with the index name and the function computing the index keys
+   */
+  public static Map<String, Function<Deployment, List<String>>> getIndexers(String kindName) {
+    return Map.of(BY_OWNER_UID, deployment -> getOwnerUids(deployment, kindName));
+  }
+
+  /**
+   * Retrieve the UIDs of the owners with the custom resource kind.
+   *
+   * @param deployment Deployment object
+   * @param kindName custom resource kind name
+   * @return List with the owner UIDs
+   */
+  public static List<String> getOwnerUids(Deployment deployment, String kindName) {
+    return deployment.getMetadata().getOwnerReferences().stream()
+                     .filter(owner -> kindName.equals(owner.getKind()))
+                     .map(OwnerReference::getUid)
+                     .collect(Collectors.toList());
+  }
+}
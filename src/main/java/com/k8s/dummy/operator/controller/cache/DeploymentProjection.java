@@ -0,0 +1,110 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import io.fabric8.kubernetes.api.model.Container;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import io.fabric8.kubernetes.api.model.PodSpec;
+import io.fabric8.kubernetes.api.model.PodTemplateSpec;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentSpec;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Compact representation of the Deployments kept in the informer cache. The controller and the
+ * Deployment event handler only read the name, namespace, owner references, generation,
+ * replicas, the spec hash annotation, the pod template labels and the container name, image,
+ * command and args, so the status, the managed fields and the rest of the pod template are
+ * dropped before the Deployment reaches the cache.
+ * The resource version is kept since the informer resumes its watch from it.
+ */
+public final class DeploymentProjection {
+
+  private DeploymentProjection() {
+  }
+
+  /**
+   * Create the projection keeping only the given annotations.
+   *
+   * @param annotations keys of the annotations to keep
+   * @return UnaryOperator returning the compact copy of a Deployment
+   */
+  public static UnaryOperator<Deployment> getProjection(Collection<String> annotations) {
+    return deployment -> project(deployment, annotations);
+  }
+
+  /**
+   * Copy the fields of the Deployment read by the operator. The Deployment is not modified and
+   * the values kept are shared with it rather than copied, since it is discarded afterwards.
+   *
+   * @param deployment Deployment object
+   * @param annotations keys of the annotations to keep
+   * @return Deployment with only the fields read by the operator
+   */
+  public static Deployment project(Deployment deployment, Collection<String> annotations) {
+    ObjectMeta metadata = deployment.getMetadata();
+    ObjectMeta projectedMetadata = new ObjectMeta();
+    projectedMetadata.setName(metadata.getName());
+    projectedMetadata.setNamespace(metadata.getNamespace());
+    projectedMetadata.setUid(metadata.getUid());
+    projectedMetadata.setResourceVersion(metadata.getResourceVersion());
+    projectedMetadata.setGeneration(metadata.getGeneration());
+    projectedMetadata.setLabels(metadata.getLabels());
+    projectedMetadata.setAnnotations(filter(metadata.getAnnotations(), annotations));
+    projectedMetadata.setOwnerReferences(metadata.getOwnerReferences());
+    Deployment projected = new Deployment();
+    projected.setMetadata(projectedMetadata);
+    DeploymentSpec spec = deployment.getSpec();
+    if (spec != null) {
+      PodSpec podSpec = new PodSpec();
+      podSpec.setContainers(getContainers(spec.getTemplate()));
+      PodTemplateSpec template = new PodTemplateSpec();
+      template.setMetadata(getTemplateLabels(spec.getTemplate()));
+      template.setSpec(podSpec);
+      DeploymentSpec projectedSpec = new DeploymentSpec();
+      projectedSpec.setReplicas(spec.getReplicas());
+      projectedSpec.setTemplate(template);
+      projected.setSpec(projectedSpec);
+    }
+    return projected;
+  }
+
+  private static Map<String, String> filter(Map<String, String> annotations,
+                                            Collection<String> keys) {
+    if (annotations == null) {
+      return null;
+    }
+    return annotations.entrySet().stream()
+                      .filter(annotation -> keys.contains(annotation.getKey()))
+                      .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+  }
+
+  private static ObjectMeta getTemplateLabels(PodTemplateSpec template) {
+    ObjectMeta metadata = new ObjectMeta();
+    metadata.setLabels(Optional.ofNullable(template)
+                               .map(PodTemplateSpec::getMetadata)
+                               .map(ObjectMeta::getLabels)
+                               .orElse(null));
+    return metadata;
+  }
+
+  private static List<Container> getContainers(PodTemplateSpec template) {
+    return Optional.ofNullable(template)
+                   .map(PodTemplateSpec::getSpec)
+                   .map(PodSpec::getContainers)
+                   .orElse(List.of())
+                   .stream()
+                   .map(container -> {
+                     Container projected = new Container();
+                     projected.setName(container.getName());
+                     projected.setImage(container.getImage());
+                     projected.setCommand(container.getCommand());
+                     projected.setArgs(container.getArgs());
+                     return projected;
+                   })
+                   .collect(Collectors.toList());
+  }
+}
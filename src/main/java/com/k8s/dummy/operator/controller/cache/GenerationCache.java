@@ -0,0 +1,97 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.ObjectMeta;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Values generated from a resource, kept while the resource keeps its UID and generation.
+ * The API server increments the generation on every spec change, so a value generated from
+ * the spec stays valid as long as the generation does. Only the value of the last generation
+ * seen is kept for each UID and the least recently used UIDs are evicted once the cache is
+ * full. Resources without UID or generation are never cached.
+ * The values are shared between callers and must not be modified.
+ */
+public class GenerationCache<R extends HasMetadata, V> {
+  private final Map<String, Entry<V>> entries;
+
+  /**
+   * Create an empty GenerationCache.
+   *
+   * @param maxSize maximum number of resources kept, 0 disables the cache
+   */
+  public GenerationCache(int maxSize) {
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+        return size() > maxSize;
+      }
+    };
+  }
+
+  /**
+   * Get the value of the resource, generating it if the resource is not cached or if its
+   * generation changed. The value is generated outside the lock, so two callers may generate
+   * the value of the same resource at once, the value of the newest generation is kept.
+   *
+   * @param resource resource the value is generated from
+   * @param generator function generating the value of a resource
+   * @return V
+   */
+  public V get(R resource, Function<R, V> generator) {
+    ObjectMeta metadata = resource.getMetadata();
+    String uid = metadata.getUid();
+    Long generation = metadata.getGeneration();
+    if (uid == null || generation == null) {
+      return generator.apply(resource);
+    }
+    synchronized (entries) {
+      Entry<V> entry = entries.get(uid);
+      if (entry != null && entry.generation == generation) {
+        return entry.value;
+      }
+    }
+    V value = generator.apply(resource);
+    synchronized (entries) {
+      Entry<V> entry = entries.get(uid);
+      if (entry == null || entry.generation < generation) {
+        entries.put(uid, new Entry<>(generation, value));
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Remove the value of a resource.
+   *
+   * @param uid UID of the resource
+   */
+  public void evict(String uid) {
+    synchronized (entries) {
+      entries.remove(uid);
+    }
+  }
+
+  /**
+   * Get the number of resources cached.
+   *
+   * @return int
+   */
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  private static class Entry<V> {
+    private final long generation;
+    private final V value;
+
+    Entry(long generation, V value) {
+      this.generation = generation;
+      this.value = value;
+    }
+  }
+}
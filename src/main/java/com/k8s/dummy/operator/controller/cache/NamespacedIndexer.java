@@ -0,0 +1,82 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.client.informers.cache.Indexer;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A view over the indexers of informers that each watch a single namespace.
+ * Lookups by object or key go to the indexer of their namespace and the others go through
+ * every indexer, so the controller reads it as if it was the indexer of a single informer.
+ */
+public class NamespacedIndexer<T extends HasMetadata> implements Indexer<T> {
+  private final Map<String, Indexer<T>> indexers;
+
+  /**
+   * Create the view.
+   *
+   * @param indexers indexers by the namespace their informer watches
+   */
+  public NamespacedIndexer(Map<String, Indexer<T>> indexers) {
+    this.indexers = indexers;
+  }
+
+  @Override
+  public List<T> list() {
+    return collect(Indexer::list);
+  }
+
+  @Override
+  public List<String> listKeys() {
+    return collect(Indexer::listKeys);
+  }
+
+  @Override
+  public T get(T obj) {
+    Indexer<T> indexer = indexers.get(obj.getMetadata().getNamespace());
+    return indexer != null ? indexer.get(obj) : null;
+  }
+
+  @Override
+  public T getByKey(String key) {
+    int separator = key.indexOf('/');
+    Indexer<T> indexer = separator < 0 ? null : indexers.get(key.substring(0, separator));
+    return indexer != null ? indexer.getByKey(key) : null;
+  }
+
+  @Override
+  public List<T> index(String indexName, T obj) {
+    Indexer<T> indexer = indexers.get(obj.getMetadata().getNamespace());
+    return indexer != null ? indexer.index(indexName, obj) : List.of();
+  }
+
+  @Override
+  public List<String> indexKeys(String indexName, String indexKey) {
+    return collect(indexer -> indexer.indexKeys(indexName, indexKey));
+  }
+
+  @Override
+  public List<T> byIndex(String indexName, String indexKey) {
+    return collect(indexer -> indexer.byIndex(indexName, indexKey));
+  }
+
+  @Override
+  public Map<String, Function<T, List<String>>> getIndexers() {
+    return indexers.values().stream().findFirst().map(Indexer::getIndexers).orElse(Map.of());
+  }
+
+  @Override
+  public void addIndexers(Map<String, Function<T, List<String>>> indexers) {
+    this.indexers.values().forEach(indexer -> indexer.addIndexers(indexers));
+  }
+
+  private <R> List<R> collect(Function<Indexer<T>, Collection<R>> function) {
+    return indexers.values().stream()
+                   .flatMap(indexer -> function.apply(indexer).stream())
+                   .collect(Collectors.toList());
+  }
+}
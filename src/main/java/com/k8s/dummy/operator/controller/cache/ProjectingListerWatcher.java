@@ -0,0 +1,70 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.KubernetesResourceList;
+import io.fabric8.kubernetes.api.model.ListOptions;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.WatcherException;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import io.fabric8.kubernetes.client.dsl.base.OperationContext;
+import io.fabric8.kubernetes.client.informers.ListerWatcher;
+import java.util.function.UnaryOperator;
+
+/**
+ * Lists and watches resources like the informers of the client do, but hands the informer
+ * a projection of every resource, so the informer cache only holds what the projection keeps.
+ * The namespace and the label selector come from the operation, already filtered.
+ * With the identity projection the resources are cached as they are, for informers that have
+ * to be created without being started.
+ */
+public class ProjectingListerWatcher<T extends HasMetadata, L extends KubernetesResourceList<T>>
+    implements ListerWatcher<T, L> {
+  private final FilterWatchListDeletable<T, L> operation;
+  private final UnaryOperator<T> projection;
+
+  /**
+   * Create the lister watcher.
+   *
+   * @param operation operation listing and watching the resources
+   * @param projection function returning the copy of a resource to cache
+   */
+  public ProjectingListerWatcher(FilterWatchListDeletable<T, L> operation,
+                                 UnaryOperator<T> projection) {
+    this.operation = operation;
+    this.projection = projection;
+  }
+
+  @Override
+  public L list(ListOptions params, String namespace, OperationContext context) {
+    L list = operation.list(params);
+    list.getItems().replaceAll(projection);
+    return list;
+  }
+
+  @Override
+  public Watch watch(ListOptions params, String namespace, OperationContext context,
+                     Watcher<T> watcher) {
+    return operation.watch(params, new Watcher<>() {
+      @Override
+      public boolean reconnecting() {
+        return watcher.reconnecting();
+      }
+
+      @Override
+      public void eventReceived(Action action, T resource) {
+        watcher.eventReceived(action, resource != null ? projection.apply(resource) : null);
+      }
+
+      @Override
+      public void onClose() {
+        watcher.onClose();
+      }
+
+      @Override
+      public void onClose(WatcherException cause) {
+        watcher.onClose(cause);
+      }
+    });
+  }
+}
@@ -0,0 +1,169 @@
+package com.k8s.dummy.operator.controller.client;
+
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.events.v1.Event;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+/**
+ * Sends the writes of an EnhancedClient from an I/O executor and returns a CompletableFuture
+ * for each of them, so the writes of many Dummies can be in flight at once and be waited for
+ * together. The number of requests in flight is limited across every caller, a caller blocks
+ * until a request finishes when the limit is reached, so the limit holds whatever executor
+ * is used. A request sent from an I/O thread, such as a write chained after another one
+ * completed, is queued instead and sent when a request finishes, so the I/O threads never
+ * block on the limit and never wait for requests that only they could send.
+ */
+public class AsyncEnhancedClient<T> {
+  private final EnhancedClient<T> enhancedClient;
+  private final Executor executor;
+  private final int maxInFlight;
+  private final Semaphore inFlight;
+  private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<Boolean> ioThread = ThreadLocal.withInitial(() -> false);
+
+  /**
+   * Create an AsyncEnhancedClient.
+   *
+   * @param enhancedClient client that follows an EnhancedClient interface
+   * @param executor executor sending the requests
+   * @param maxInFlight maximum number of requests in flight
+   */
+  public AsyncEnhancedClient(EnhancedClient<T> enhancedClient, Executor executor,
+                             int maxInFlight) {
+    this.enhancedClient = enhancedClient;
+    this.executor = executor;
+    this.maxInFlight = maxInFlight;
+    this.inFlight = new Semaphore(maxInFlight);
+  }
+
+  /**
+   * Create the deployment.
+   *
+   * @param deployment Deployment object
+   * @return CompletableFuture completed once the deployment is created
+   */
+  public CompletableFuture<Void> addDeployment(Deployment deployment) {
+    return submit(() -> {
+      enhancedClient.addDeployment(deployment);
+      return null;
+    });
+  }
+
+  /**
+   * Edit the deployment to match the desired one.
+   *
+   * @param desiredDeployment desired Deployment object
+   * @return CompletableFuture completed once the deployment is edited
+   */
+  public CompletableFuture<Void> editDeployment(Deployment desiredDeployment) {
+    return submit(() -> {
+      enhancedClient.editDeployment(desiredDeployment);
+      return null;
+    });
+  }
+
+  /**
+   * Write the status of the Dummy.
+   *
+   * @param dummy Dummy object
+   * @param status desired status
+   * @return CompletableFuture completed once the status is written
+   */
+  public CompletableFuture<Void> updateStatus(Dummy dummy, DummyStatus status) {
+    return submit(() -> {
+      enhancedClient.updateStatus(dummy, status);
+      return null;
+    });
+  }
+
+  public CompletableFuture<Event> addEvent(Event event) {
+    return submit(() -> enhancedClient.addEvent(event));
+  }
+
+  public int getInFlight() {
+    return maxInFlight - inFlight.availablePermits();
+  }
+
+  public EnhancedClient<T> getEnhancedClient() {
+    return enhancedClient;
+  }
+
+  /**
+   * Stop the executor once the requests already sent are done.
+   */
+  public void shutdown() {
+    if (executor instanceof ExecutorService) {
+      ((ExecutorService) executor).shutdown();
+    }
+  }
+
+  private <R> CompletableFuture<R> submit(Supplier<R> request) {
+    if (!ioThread.get()) {
+      inFlight.acquireUninterruptibly();
+      return send(request);
+    }
+    CompletableFuture<R> response = new CompletableFuture<>();
+    waiting.add(() -> {
+      try {
+        send(request).whenComplete((result, error) -> {
+          if (error != null) {
+            response.completeExceptionally(error);
+          } else {
+            response.complete(result);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        response.completeExceptionally(e);
+      }
+    });
+    sendWaiting();
+    return response;
+  }
+
+  /**
+   * Send a request holding a permit, which is released once it finishes.
+   */
+  private <R> CompletableFuture<R> send(Supplier<R> request) {
+    Thread caller = Thread.currentThread();
+    try {
+      return CompletableFuture.supplyAsync(() -> {
+        if (Thread.currentThread() != caller) {
+          ioThread.set(true);
+        }
+        return request.get();
+      }, executor).whenComplete((result, error) -> release());
+    } catch (RejectedExecutionException e) {
+      release();
+      throw e;
+    }
+  }
+
+  private void release() {
+    inFlight.release();
+    sendWaiting();
+  }
+
+  /**
+   * Send the queued requests while permits are available. Both a queued request and a
+   * released permit check for the other after being added, so none is left waiting.
+   */
+  private void sendWaiting() {
+    while (!waiting.isEmpty() && inFlight.tryAcquire()) {
+      Runnable request = waiting.poll();
+      if (request == null) {
+        inFlight.release();
+      } else {
+        request.run();
+      }
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.k8s.dummy.operator.controller.client;
+
+/**
+ * How the EnhancedClient updates an existing deployment.
+ * EDIT reads the deployment and sends a JSON patch of the changes made to it, so it costs a
+ * read on top of the write, and the patch fails if the deployment changed in between.
+ * PATCH sends a single strategic merge patch with only the fields owned by the operator.
+ */
+public enum DeploymentUpdateMode {
+  EDIT("patch"),
+  PATCH("patch");
+
+  private final String verb;
+
+  DeploymentUpdateMode(String verb) {
+    this.verb = verb;
+  }
+
+  /**
+   * Get the verb of the request writing the deployment.
+   *
+   * @return String with the Kubernetes API verb
+   */
+  public String getVerb() {
+    return verb;
+  }
+}
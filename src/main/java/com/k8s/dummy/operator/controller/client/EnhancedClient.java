@@ -1,22 +1,36 @@
 package com.k8s.dummy.operator.controller.client;
 
 import com.k8s.dummy.operator.model.v1beta1.Dummy;
-import io.fabric8.kubernetes.api.model.PodTemplateSpec;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
 import io.fabric8.kubernetes.api.model.events.v1.Event;
+import io.fabric8.kubernetes.api.model.events.v1.EventSeries;
+import java.util.List;
 
 /**
  * A generic EnhancedClient that we will use in our operator it requires that it
- * can add and edit deployments, update status, add events and check the healthiness.
+ * can add and edit deployments, update status, add events, update event series,
+ * manage the leases of the operator replicas and check the healthiness.
  */
 public interface EnhancedClient<T> {
   void addDeployment(Deployment deployment);
 
-  void editDeployment(Dummy dummy, PodTemplateSpec desiredPodTemplateSpec);
+  void editDeployment(Deployment desiredDeployment);
 
-  void updateStatus(Dummy dummy);
+  void updateStatus(Dummy dummy, DummyStatus status);
 
-  void addEvent(Event event);
+  Event addEvent(Event event);
+
+  void updateEventSeries(Event event, EventSeries series);
+
+  void createLease(Lease lease);
+
+  void renewLease(Lease lease);
+
+  List<Lease> getLeases(String namespace, String label);
+
+  void deleteLease(Lease lease);
 
   boolean checkHealthiness(String kindName);
 
@@ -2,11 +2,21 @@ package com.k8s.dummy.operator.controller.client;
 
 import com.k8s.dummy.operator.model.v1beta1.Dummy;
 import com.k8s.dummy.operator.model.v1beta1.DummyList;
-import io.fabric8.kubernetes.api.model.PodTemplateSpec;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.apiextensions.v1.CustomResourceDefinition;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
 import io.fabric8.kubernetes.api.model.events.v1.Event;
+import io.fabric8.kubernetes.api.model.events.v1.EventBuilder;
+import io.fabric8.kubernetes.api.model.events.v1.EventSeries;
+import io.fabric8.kubernetes.client.CustomResource;
 import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.base.PatchContext;
+import io.fabric8.kubernetes.client.dsl.base.PatchType;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -17,47 +27,158 @@ public class EnhancedKubernetesClient implements EnhancedClient<KubernetesClient
   private static final Logger LOGGER = LoggerFactory.getLogger(EnhancedKubernetesClient.class);
 
   private final KubernetesClient client;
+  private final DeploymentUpdateMode updateMode;
 
-  public EnhancedKubernetesClient(KubernetesClient client) {
+  public EnhancedKubernetesClient(KubernetesClient client, DeploymentUpdateMode updateMode) {
     this.client = client;
+    this.updateMode = updateMode;
   }
 
   @Override
   public void addDeployment(Deployment deployment) {
     LOGGER.info("Creating a deployment");
-    client.apps().deployments().create(deployment);
+    client.apps().deployments().inNamespace(deployment.getMetadata().getNamespace())
+          .create(deployment);
   }
 
   @Override
-  public void editDeployment(Dummy dummy, PodTemplateSpec desiredPodTemplateSpec) {
+  public void editDeployment(Deployment desiredDeployment) {
     LOGGER.info("Editing deployment");
-    client.apps().deployments().inNamespace(dummy.getMetaspace()).withName(dummy.getMetaName())
+    if (updateMode == DeploymentUpdateMode.PATCH) {
+      patchDeployment(desiredDeployment);
+      return;
+    }
+    client.apps().deployments().inNamespace(desiredDeployment.getMetadata().getNamespace())
+        .withName(desiredDeployment.getMetadata().getName())
         .edit(d -> new DeploymentBuilder(d)
-            .editSpec().withReplicas(dummy.getSpec().getReplicas())
-            .withTemplate(desiredPodTemplateSpec).endSpec().build());
+            .editMetadata().addToAnnotations(desiredDeployment.getMetadata().getAnnotations())
+            .endMetadata()
+            .editSpec().withReplicas(desiredDeployment.getSpec().getReplicas())
+            .withTemplate(desiredDeployment.getSpec().getTemplate()).endSpec().build());
       
   }
 
+  /**
+   * Send a strategic merge patch with only the annotations, the replicas and the pod template,
+   * which are the fields owned by the operator. It is a single request without resourceVersion,
+   * so it does not need to read the deployment first and does not fail on conflicts.
+   *
+   * @param desiredDeployment desired deployment
+   */
+  private void patchDeployment(Deployment desiredDeployment) {
+    Deployment patch = new DeploymentBuilder()
+                          .withNewMetadata()
+                            .withName(desiredDeployment.getMetadata().getName())
+                            .withNamespace(desiredDeployment.getMetadata().getNamespace())
+                            .withAnnotations(desiredDeployment.getMetadata().getAnnotations())
+                            .endMetadata()
+                          .withNewSpec()
+                            .withReplicas(desiredDeployment.getSpec().getReplicas())
+                            .withTemplate(desiredDeployment.getSpec().getTemplate())
+                            .endSpec()
+                          .build();
+    client.apps().deployments().inNamespace(desiredDeployment.getMetadata().getNamespace())
+        .withName(desiredDeployment.getMetadata().getName())
+        .patch(PatchContext.of(PatchType.STRATEGIC_MERGE), patch);
+  }
+
+  /**
+   * Send a JSON merge patch to the status subresource with only the status, so the
+   * rest of the cached Dummy object is neither sent nor compared. The patch carries the
+   * resourceVersion of the Dummy the status was computed from, so it is rejected with a
+   * conflict if the Dummy changed since, instead of writing back a stale timesChanged.
+   *
+   * @param dummy Dummy object
+   * @param status desired status
+   */
   @Override
-  public void updateStatus(Dummy dummy) {
+  public void updateStatus(Dummy dummy, DummyStatus status) {
     LOGGER.info("Update status");
+    Dummy patch = new Dummy();
+    patch.setMetadata(new ObjectMetaBuilder().withName(dummy.getMetaName())
+                                             .withNamespace(dummy.getMetaspace())
+                                             .withResourceVersion(dummy.getMetadata()
+                                                                       .getResourceVersion())
+                                             .build());
+    patch.setStatus(status);
     client.customResources(Dummy.class, DummyList.class)
           .inNamespace(dummy.getMetaspace())
           .withName(dummy.getMetaName())
-          .patchStatus(dummy);
+          .patchStatus(patch);
   }
 
   @Override
-  public void addEvent(Event event) {
+  public Event addEvent(Event event) {
     LOGGER.info("Add event");
-    client.events().v1().events().inNamespace(event.getMetadata().getNamespace()).create(event);
+    return client.events().v1().events().inNamespace(event.getMetadata().getNamespace())
+                 .create(event);
+  }
+
+  @Override
+  public void updateEventSeries(Event event, EventSeries series) {
+    LOGGER.info("Update event series");
+    Event patch = new EventBuilder()
+                      .withNewMetadata()
+                        .withName(event.getMetadata().getName())
+                        .withNamespace(event.getMetadata().getNamespace())
+                        .endMetadata()
+                      .withSeries(series)
+                      .build();
+    client.events().v1().events().inNamespace(event.getMetadata().getNamespace())
+          .withName(event.getMetadata().getName())
+          .patch(PatchContext.of(PatchType.JSON_MERGE), patch);
+  }
+
+  @Override
+  public void createLease(Lease lease) {
+    LOGGER.info("Create lease {}", lease.getMetadata().getName());
+    client.leases().inNamespace(lease.getMetadata().getNamespace()).create(lease);
+  }
+
+  /**
+   * Send a strategic merge patch with the lease, a single request without resourceVersion
+   * that fails if the lease does not exist.
+   *
+   * @param lease desired lease
+   */
+  @Override
+  public void renewLease(Lease lease) {
+    client.leases().inNamespace(lease.getMetadata().getNamespace())
+          .withName(lease.getMetadata().getName())
+          .patch(PatchContext.of(PatchType.STRATEGIC_MERGE), lease);
+  }
+
+  @Override
+  public List<Lease> getLeases(String namespace, String label) {
+    return client.leases().inNamespace(namespace).withLabel(label).list().getItems();
+  }
+
+  @Override
+  public void deleteLease(Lease lease) {
+    LOGGER.info("Delete lease {}", lease.getMetadata().getName());
+    client.leases().inNamespace(lease.getMetadata().getNamespace())
+          .withName(lease.getMetadata().getName())
+          .delete();
   }
 
+  /**
+   * Get the Dummy Custom Resource Definition by name and check its kind, instead of
+   * listing every Custom Resource Definition in the cluster.
+   *
+   * @param kindName custom resource kind name
+   * @return true if the Custom Resource Definition exists
+   */
   @Override
   public boolean checkHealthiness(String kindName) {
-    return client.apiextensions().v1().customResourceDefinitions()
-                 .list().getItems().stream()
-                 .anyMatch(x -> x.getSpec().getNames().getKind().equals(kindName));
+    try {
+      CustomResourceDefinition crd = client.apiextensions().v1().customResourceDefinitions()
+                                           .withName(CustomResource.getCRDName(Dummy.class))
+                                           .get();
+      return crd != null && crd.getSpec().getNames().getKind().equals(kindName);
+    } catch (KubernetesClientException e) {
+      LOGGER.warn("Error while checking healthiness {}", e.getMessage());
+      return false;
+    }
   }
 
   @Override
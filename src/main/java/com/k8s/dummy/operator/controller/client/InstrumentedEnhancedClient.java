@@ -0,0 +1,160 @@
+package com.k8s.dummy.operator.controller.client;
+
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.events.v1.Event;
+import io.fabric8.kubernetes.api.model.events.v1.EventSeries;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * An EnhancedClient that delegates to another one and measures the latency of each call,
+ * tagged by method and outcome, and counts the errors, tagged by method and status code.
+ * The meters of each method are registered once, the error counters once per status code.
+ */
+public class InstrumentedEnhancedClient<T> implements EnhancedClient<T> {
+  private static final List<String> METHODS = List.of("addDeployment", "editDeployment",
+                                                      "updateStatus", "addEvent",
+                                                      "updateEventSeries", "createLease",
+                                                      "renewLease",
+                                                      "getLeases", "deleteLease",
+                                                      "checkHealthiness");
+
+  private final EnhancedClient<T> delegate;
+  private final Map<String, Meters> meters;
+
+  /**
+   * Create the client and register the meters of each method.
+   *
+   * @param delegate client the calls are delegated to
+   * @param registry registry where the meters are published
+   */
+  public InstrumentedEnhancedClient(EnhancedClient<T> delegate, MeterRegistry registry) {
+    this.delegate = delegate;
+    this.meters = METHODS.stream()
+                         .collect(Collectors.toMap(Function.identity(),
+                                                   method -> new Meters(registry, method)));
+  }
+
+  @Override
+  public void addDeployment(Deployment deployment) {
+    record("addDeployment", () -> delegate.addDeployment(deployment));
+  }
+
+  @Override
+  public void editDeployment(Deployment desiredDeployment) {
+    record("editDeployment", () -> delegate.editDeployment(desiredDeployment));
+  }
+
+  @Override
+  public void updateStatus(Dummy dummy, DummyStatus status) {
+    record("updateStatus", () -> delegate.updateStatus(dummy, status));
+  }
+
+  @Override
+  public Event addEvent(Event event) {
+    return record("addEvent", () -> delegate.addEvent(event));
+  }
+
+  @Override
+  public void updateEventSeries(Event event, EventSeries series) {
+    record("updateEventSeries", () -> delegate.updateEventSeries(event, series));
+  }
+
+  @Override
+  public void createLease(Lease lease) {
+    record("createLease", () -> delegate.createLease(lease));
+  }
+
+  @Override
+  public void renewLease(Lease lease) {
+    record("renewLease", () -> delegate.renewLease(lease));
+  }
+
+  @Override
+  public List<Lease> getLeases(String namespace, String label) {
+    return record("getLeases", () -> delegate.getLeases(namespace, label));
+  }
+
+  @Override
+  public void deleteLease(Lease lease) {
+    record("deleteLease", () -> delegate.deleteLease(lease));
+  }
+
+  @Override
+  public boolean checkHealthiness(String kindName) {
+    return record("checkHealthiness", () -> delegate.checkHealthiness(kindName));
+  }
+
+  @Override
+  public T getClient() {
+    return delegate.getClient();
+  }
+
+  private void record(String method, Runnable call) {
+    record(method, () -> {
+      call.run();
+      return null;
+    });
+  }
+
+  private <R> R record(String method, Supplier<R> call) {
+    Meters methodMeters = meters.get(method);
+    long start = System.nanoTime();
+    Timer timer = methodMeters.error;
+    try {
+      R result = call.get();
+      timer = methodMeters.success;
+      return result;
+    } catch (KubernetesClientException e) {
+      methodMeters.getErrors(e.getCode()).increment();
+      throw e;
+    } finally {
+      timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  private static class Meters {
+    private final MeterRegistry registry;
+    private final String method;
+    private final Timer success;
+    private final Timer error;
+    private final ConcurrentMap<Integer, Counter> errors = new ConcurrentHashMap<>();
+
+    Meters(MeterRegistry registry, String method) {
+      this.registry = registry;
+      this.method = method;
+      this.success = timer("success");
+      this.error = timer("error");
+    }
+
+    private Timer timer(String outcome) {
+      return Timer.builder("operator.client.requests")
+                  .description("Time spent in calls to the API server")
+                  .tag("method", method)
+                  .tag("outcome", outcome)
+                  .publishPercentileHistogram()
+                  .register(registry);
+    }
+
+    Counter getErrors(int code) {
+      return errors.computeIfAbsent(code, key -> Counter.builder("operator.client.errors")
+          .description("Number of failed calls to the API server")
+          .tag("method", method)
+          .tag("code", String.valueOf(key))
+          .register(registry));
+    }
+  }
+}
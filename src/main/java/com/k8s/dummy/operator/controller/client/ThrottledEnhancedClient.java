@@ -0,0 +1,163 @@
+package com.k8s.dummy.operator.controller.client;
+
+import com.k8s.dummy.operator.controller.flowcontrol.AdaptiveRateLimiter;
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.Status;
+import io.fabric8.kubernetes.api.model.StatusDetails;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.events.v1.Event;
+import io.fabric8.kubernetes.api.model.events.v1.EventSeries;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * An EnhancedClient that delegates to another one and limits the rate of its writes, with an
+ * adaptive rate limiter per verb and resource (@see AdaptiveRateLimiter). A request throttled
+ * by the API server, answered with 429 Too Many Requests, lowers the rate of its verb and
+ * resource and pauses it for the time the server asked, and is still reported to the caller.
+ * Reads and leases are not limited, so the health check and the shard membership never wait
+ * behind the writes.
+ */
+public class ThrottledEnhancedClient<T> implements EnhancedClient<T> {
+  private static final int TOO_MANY_REQUESTS = 429;
+
+  private final EnhancedClient<T> delegate;
+  private final AdaptiveRateLimiter createDeployments;
+  private final AdaptiveRateLimiter editDeployments;
+  private final AdaptiveRateLimiter patchDummyStatus;
+  private final AdaptiveRateLimiter createEvents;
+  private final AdaptiveRateLimiter patchEvents;
+
+  /**
+   * Create a ThrottledEnhancedClient and publish the current rate of each verb and resource
+   * as operator.client.qps. Deployment edits are tagged with the verb of the update mode.
+   *
+   * @param delegate client sending the requests
+   * @param registry registry where the rates are published
+   * @param updateMode how the delegate updates an existing deployment
+   * @param qps rate of each verb and resource until the API server throttles it
+   * @param minQps rate never gone below
+   * @param burst maximum number of requests of each verb and resource sent at once
+   */
+  public ThrottledEnhancedClient(EnhancedClient<T> delegate, MeterRegistry registry,
+                                 DeploymentUpdateMode updateMode, double qps, double minQps,
+                                 int burst) {
+    this.delegate = delegate;
+    this.createDeployments = createLimiter(registry, "create", "deployments", qps, minQps, burst);
+    this.editDeployments = createLimiter(registry, updateMode.getVerb(), "deployments", qps,
+                                         minQps, burst);
+    this.patchDummyStatus = createLimiter(registry, "patch", "dummies/status", qps, minQps, burst);
+    this.createEvents = createLimiter(registry, "create", "events", qps, minQps, burst);
+    this.patchEvents = createLimiter(registry, "patch", "events", qps, minQps, burst);
+  }
+
+  @Override
+  public void addDeployment(Deployment deployment) {
+    throttle(createDeployments, () -> delegate.addDeployment(deployment));
+  }
+
+  @Override
+  public void editDeployment(Deployment desiredDeployment) {
+    throttle(editDeployments, () -> delegate.editDeployment(desiredDeployment));
+  }
+
+  @Override
+  public void updateStatus(Dummy dummy, DummyStatus status) {
+    throttle(patchDummyStatus, () -> delegate.updateStatus(dummy, status));
+  }
+
+  @Override
+  public Event addEvent(Event event) {
+    return throttle(createEvents, () -> delegate.addEvent(event));
+  }
+
+  @Override
+  public void updateEventSeries(Event event, EventSeries series) {
+    throttle(patchEvents, () -> delegate.updateEventSeries(event, series));
+  }
+
+  @Override
+  public void createLease(Lease lease) {
+    delegate.createLease(lease);
+  }
+
+  @Override
+  public void renewLease(Lease lease) {
+    delegate.renewLease(lease);
+  }
+
+  @Override
+  public List<Lease> getLeases(String namespace, String label) {
+    return delegate.getLeases(namespace, label);
+  }
+
+  @Override
+  public void deleteLease(Lease lease) {
+    delegate.deleteLease(lease);
+  }
+
+  @Override
+  public boolean checkHealthiness(String kindName) {
+    return delegate.checkHealthiness(kindName);
+  }
+
+  @Override
+  public T getClient() {
+    return delegate.getClient();
+  }
+
+  private static AdaptiveRateLimiter createLimiter(MeterRegistry registry, String verb,
+                                                   String resource, double qps, double minQps,
+                                                   int burst) {
+    AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(qps, minQps, burst);
+    Gauge.builder("operator.client.qps", limiter, AdaptiveRateLimiter::getQps)
+         .description("Rate of the writes allowed to the API server, in requests per second")
+         .tag("verb", verb)
+         .tag("resource", resource)
+         .register(registry);
+    return limiter;
+  }
+
+  private void throttle(AdaptiveRateLimiter limiter, Runnable call) {
+    throttle(limiter, () -> {
+      call.run();
+      return null;
+    });
+  }
+
+  private <R> R throttle(AdaptiveRateLimiter limiter, Supplier<R> call) {
+    limiter.acquire();
+    try {
+      R result = call.get();
+      limiter.onSuccess();
+      return result;
+    } catch (KubernetesClientException e) {
+      if (e.getCode() == TOO_MANY_REQUESTS) {
+        limiter.onThrottled(getRetryAfter(e));
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Milliseconds the API server asked to wait, from the details of the status it answered
+   * with, which carry the same delay as the Retry-After header.
+   *
+   * @param e error returned by the API server
+   * @return long, 0 if the server did not ask to wait
+   */
+  private static long getRetryAfter(KubernetesClientException e) {
+    return Optional.ofNullable(e.getStatus())
+                   .map(Status::getDetails)
+                   .map(StatusDetails::getRetryAfterSeconds)
+                   .map(seconds -> TimeUnit.SECONDS.toMillis(seconds))
+                   .orElse(0L);
+  }
+}
@@ -0,0 +1,201 @@
+package com.k8s.dummy.operator.controller.events;
+
+import com.k8s.dummy.operator.controller.client.EnhancedClient;
+import io.fabric8.kubernetes.api.model.ObjectReference;
+import io.fabric8.kubernetes.api.model.events.v1.Event;
+import io.fabric8.kubernetes.api.model.events.v1.EventSeries;
+import io.fabric8.kubernetes.api.model.events.v1.EventSeriesBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Records events asynchronously. Events are buffered in a bounded queue, dropped if it is full,
+ * and written by a single thread so recording never blocks the reconcile.
+ * The first event with the same regarding object, action and reason is created and the
+ * following ones, while they keep happening within the aggregation window, only increment
+ * the series of the created event, which is patched at most once per flush period.
+ * A series whose event no longer exists, because it expired, is dropped and the next occurrence
+ * creates the event again.
+ * Errors writing an event or a series are logged and never stop the thread.
+ */
+public class EventRecorder implements Runnable {
+  private static final Logger LOGGER = LoggerFactory.getLogger(EventRecorder.class);
+  private static final int NOT_FOUND = 404;
+  private static final DateTimeFormatter k8sMicroTime =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss'.'SSSSSSXXX").withZone(ZoneId.of("UTC"));
+
+  private final EnhancedClient<?> enhancedClient;
+  private final BlockingQueue<Event> events;
+  private final long window;
+  private final long flushPeriod;
+  private final Map<String, Series> series = new HashMap<>();
+
+  private Thread thread;
+
+  /**
+   * Create an EventRecorder. It only writes events after being started.
+   *
+   * @param enhancedClient client that follows an EnhancedClient interface
+   * @param bufferSize maximum number of events waiting to be written
+   * @param window milliseconds since the last occurrence during which events are aggregated
+   * @param flushPeriod milliseconds between updates of the aggregated series
+   */
+  public EventRecorder(EnhancedClient<?> enhancedClient, int bufferSize, long window,
+                       long flushPeriod) {
+    this.enhancedClient = enhancedClient;
+    this.events = new ArrayBlockingQueue<>(bufferSize);
+    this.window = window;
+    this.flushPeriod = flushPeriod;
+  }
+
+  /**
+   * Start the thread writing the events.
+   */
+  public synchronized void start() {
+    if (thread == null) {
+      thread = new Thread(this, "operator-event-recorder");
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Stop the thread writing the events, pending events are discarded.
+   */
+  public synchronized void shutdown() {
+    if (thread != null) {
+      thread.interrupt();
+      thread = null;
+    }
+  }
+
+  /**
+   * Buffer an event to be written. Never blocks, if the buffer is full the event is dropped.
+   *
+   * @param event Event object
+   * @return true if the event was buffered
+   */
+  public boolean record(Event event) {
+    if (!events.offer(event)) {
+      LOGGER.warn("Event buffer full, dropping {} event", event.getAction());
+      return false;
+    }
+    return true;
+  }
+
+  @Override
+  public void run() {
+    long nextFlush = System.currentTimeMillis() + flushPeriod;
+    while (!Thread.currentThread().isInterrupted()) {
+      try {
+        Event event = events.poll(Math.max(0, nextFlush - System.currentTimeMillis()),
+                                  TimeUnit.MILLISECONDS);
+        if (event != null) {
+          process(event, System.currentTimeMillis());
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (KubernetesClientException e) {
+        LOGGER.warn("Error while writing event {}", e.getMessage());
+      } catch (RuntimeException e) {
+        LOGGER.error("Error while writing event", e);
+      }
+      if (System.currentTimeMillis() >= nextFlush) {
+        nextFlush = System.currentTimeMillis() + flushPeriod;
+        flush(System.currentTimeMillis());
+      }
+    }
+  }
+
+  /**
+   * Create the event, or count it in the series of the same event if it was seen within
+   * the aggregation window.
+   *
+   * @param event Event object
+   * @param now current time in milliseconds
+   */
+  void process(Event event, long now) {
+    String key = getKey(event);
+    Series current = series.get(key);
+    if (current != null && now - current.lastObserved <= window) {
+      current.count += 1;
+      current.lastObserved = now;
+      return;
+    }
+    Event created = enhancedClient.addEvent(event);
+    if (created != null) {
+      series.put(key, new Series(created, now));
+    }
+  }
+
+  /**
+   * Update the series that changed since the last flush and forget the ones
+   * not seen within the aggregation window. A failed update does not stop the others: the
+   * series is dropped if its event no longer exists and otherwise updated again on the next
+   * flush.
+   *
+   * @param now current time in milliseconds
+   */
+  void flush(long now) {
+    Iterator<Series> iterator = series.values().iterator();
+    while (iterator.hasNext()) {
+      Series current = iterator.next();
+      if (current.count > current.flushedCount) {
+        try {
+          enhancedClient.updateEventSeries(current.event, current.toEventSeries());
+          current.flushedCount = current.count;
+        } catch (KubernetesClientException e) {
+          LOGGER.warn("Error while updating event series {}", e.getMessage());
+          if (e.getCode() == NOT_FOUND) {
+            iterator.remove();
+            continue;
+          }
+        } catch (RuntimeException e) {
+          LOGGER.error("Error while updating event series", e);
+        }
+      }
+      if (now - current.lastObserved > window) {
+        iterator.remove();
+      }
+    }
+  }
+
+  int size() {
+    return series.size();
+  }
+
+  private String getKey(Event event) {
+    ObjectReference regarding = event.getRegarding();
+    return String.join("/", regarding.getKind(), regarding.getNamespace(), regarding.getName(),
+                       event.getAction(), event.getReason());
+  }
+
+  private static class Series {
+    private final Event event;
+    private int count = 1;
+    private int flushedCount = 1;
+    private long lastObserved;
+
+    Series(Event event, long lastObserved) {
+      this.event = event;
+      this.lastObserved = lastObserved;
+    }
+
+    EventSeries toEventSeries() {
+      return new EventSeriesBuilder()
+                  .withCount(count)
+                  .withNewLastObservedTime(k8sMicroTime.format(Instant.ofEpochMilli(lastObserved)))
+                  .build();
+    }
+  }
+}
@@ -0,0 +1,90 @@
+package com.k8s.dummy.operator.controller.flowcontrol;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A token bucket whose rate follows the answers of the API server, additive increase and
+ * multiplicative decrease: the rate is halved when a request is throttled and grows back by
+ * about one request per second for every second of successful requests at full rate, up to the
+ * configured one. A throttled request may also tell how long to wait, in which case no token is
+ * handed out until then.
+ */
+public class AdaptiveRateLimiter {
+  private static final double DECREASE_FACTOR = 0.5;
+  private static final long DECREASE_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+  private final TokenBucket bucket;
+  private final double maxQps;
+  private final double minQps;
+
+  private double qps;
+  private long lastDecrease;
+  private long pausedUntil;
+
+  /**
+   * Create an AdaptiveRateLimiter starting at its maximum rate with a full bucket.
+   *
+   * @param maxQps rate used until the API server throttles a request, in requests per second
+   * @param minQps rate never gone below, in requests per second
+   * @param burst maximum number of requests sent at once
+   */
+  public AdaptiveRateLimiter(double maxQps, double minQps, int burst) {
+    this.bucket = new TokenBucket(maxQps, burst);
+    this.maxQps = maxQps;
+    this.minQps = Math.min(minQps, maxQps);
+    this.qps = maxQps;
+    this.lastDecrease = System.nanoTime() - DECREASE_INTERVAL;
+  }
+
+  /**
+   * Wait for a token, and for the pause asked by the API server if there is one.
+   */
+  public void acquire() {
+    long deadline;
+    synchronized (this) {
+      deadline = Math.max(pausedUntil, System.nanoTime()
+                          + TimeUnit.MILLISECONDS.toNanos(bucket.reserve()));
+    }
+    long wait = deadline - System.nanoTime();
+    while (wait > 0) {
+      LockSupport.parkNanos(wait);
+      wait = deadline - System.nanoTime();
+    }
+  }
+
+  /**
+   * Grow the rate after a successful request.
+   */
+  public synchronized void onSuccess() {
+    if (qps < maxQps) {
+      setQps(Math.min(maxQps, qps + 1 / qps));
+    }
+  }
+
+  /**
+   * Halve the rate after a throttled request, at most once a second since the requests in flight
+   * when the API server started throttling are answered together.
+   *
+   * @param retryAfter milliseconds the API server asked to wait, 0 if it did not
+   */
+  public synchronized void onThrottled(long retryAfter) {
+    long now = System.nanoTime();
+    if (retryAfter > 0) {
+      pausedUntil = Math.max(pausedUntil, now + TimeUnit.MILLISECONDS.toNanos(retryAfter));
+    }
+    if (now - lastDecrease >= DECREASE_INTERVAL) {
+      setQps(Math.max(minQps, qps * DECREASE_FACTOR));
+      lastDecrease = now;
+    }
+  }
+
+  public synchronized double getQps() {
+    return qps;
+  }
+
+  private void setQps(double qps) {
+    this.qps = qps;
+    bucket.setQps(qps);
+  }
+}
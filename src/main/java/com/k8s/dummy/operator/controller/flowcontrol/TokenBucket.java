@@ -0,0 +1,77 @@
+package com.k8s.dummy.operator.controller.flowcontrol;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket refilled at a fixed rate up to its burst size. Tokens are reserved in advance,
+ * so when the bucket is empty the caller is told how long to wait for its token instead of
+ * being refused, which keeps the order in which tokens were requested.
+ */
+public class TokenBucket {
+  private final int burst;
+
+  private double qps;
+  private double tokens;
+  private long last;
+
+  /**
+   * Create a full token bucket.
+   *
+   * @param qps number of tokens added per second
+   * @param burst maximum number of tokens in the bucket
+   */
+  public TokenBucket(double qps, int burst) {
+    this.qps = qps;
+    this.burst = burst;
+    this.tokens = burst;
+    this.last = System.nanoTime();
+  }
+
+  /**
+   * Reserve a token.
+   *
+   * @return number of milliseconds to wait until the reserved token is available
+   */
+  public synchronized long reserve() {
+    refill();
+    tokens -= 1;
+    if (tokens >= 0) {
+      return 0;
+    }
+    return (long) Math.ceil(-tokens / qps * TimeUnit.SECONDS.toMillis(1));
+  }
+
+  /**
+   * Take a token only if one is available right away.
+   *
+   * @return true if a token was taken
+   */
+  public synchronized boolean tryAcquire() {
+    refill();
+    if (tokens < 1) {
+      return false;
+    }
+    tokens -= 1;
+    return true;
+  }
+
+  public synchronized double getQps() {
+    return qps;
+  }
+
+  /**
+   * Change the rate at which tokens are added, keeping the tokens already in the bucket.
+   *
+   * @param qps number of tokens added per second
+   */
+  public synchronized void setQps(double qps) {
+    refill();
+    this.qps = qps;
+  }
+
+  private void refill() {
+    long now = System.nanoTime();
+    tokens = Math.min(burst, tokens + (now - last) * qps / TimeUnit.SECONDS.toNanos(1));
+    last = now;
+  }
+}
@@ -1,48 +1,90 @@
 package com.k8s.dummy.operator.controller.handlers;
 
+import com.k8s.dummy.operator.controller.queue.Lane;
+import com.k8s.dummy.operator.controller.queue.WorkQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
 import io.fabric8.kubernetes.api.model.OwnerReference;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Queue;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Event handler for deployments.
+ * Event handler for deployments. Only the updates that change the generation or the spec of
+ * the deployment queue its Dummy, status updates, resyncs and the deployments of Dummies of
+ * other shards are filtered out.
+ * A deleted deployment queues its Dummy in the repair lane so it is recreated first.
  */
 public class DeploymentEventHandler extends EventHandler<Deployment> {
   private static final Logger LOGGER = LoggerFactory.getLogger(DeploymentEventHandler.class);
+  private static final String RESOURCE = "deployment";
 
   private final String kindName;
+  private final EventMetrics eventMetrics;
 
-  public DeploymentEventHandler(Queue<String> queue, String kindName) {
-    super(queue);
+  /**
+   * Create the event handler.
+   *
+   * @param queue queue where the owning Dummies are added
+   * @param kindName custom resource kind name
+   * @param shard the Dummy resources this replica reconciles
+   * @param eventMetrics receives the queued and filtered events
+   */
+  public DeploymentEventHandler(WorkQueue<String> queue, String kindName, Shard shard,
+                                EventMetrics eventMetrics) {
+    super(queue, shard);
     this.kindName = kindName;
+    this.eventMetrics = eventMetrics;
   }
 
-  private void tryToAdd(Deployment deployment, String logMessage) {
+  private void tryToAdd(Deployment deployment, Lane lane, String logMessage) {
     Optional<OwnerReference> ownerReference = deployment.getMetadata().getOwnerReferences().stream()
                                                           .filter(x -> x.getKind().equals(kindName))
                                                           .findFirst();
 
     ownerReference.ifPresent(owner -> {
       String resourceName = getFqn(deployment.getMetadata().getNamespace(), owner.getName());
-      addToQueue(resourceName);
-      LOGGER.info(logMessage, resourceName);
+      boolean queued = addToQueue(resourceName, lane);
+      eventMetrics.observeEvent(RESOURCE, queued);
+      if (queued) {
+        LOGGER.info(logMessage, resourceName);
+      }
     });
   }
 
+  /**
+   * Check if the update changed what the operator manages. The API server increments the
+   * generation on every spec change, the spec is only compared when there is no generation.
+   *
+   * @param oldDeployment deployment before the update
+   * @param newDeployment deployment after the update
+   * @return boolean
+   */
+  public boolean isSpecChanged(Deployment oldDeployment, Deployment newDeployment) {
+    Long oldGeneration = oldDeployment.getMetadata().getGeneration();
+    Long newGeneration = newDeployment.getMetadata().getGeneration();
+    if (oldGeneration != null && newGeneration != null) {
+      return !oldGeneration.equals(newGeneration);
+    }
+    return !Objects.equals(oldDeployment.getSpec(), newDeployment.getSpec());
+  }
+
   @Override
   public void onAdd(Deployment deployment) {
   }
 
   @Override
   public void onUpdate(Deployment oldDeployment, Deployment newDeployment) {
-    tryToAdd(newDeployment, "Deployment from dummy resource {} updated");
+    if (!isSpecChanged(oldDeployment, newDeployment)) {
+      eventMetrics.observeEvent(RESOURCE, false);
+      return;
+    }
+    tryToAdd(newDeployment, Lane.SPEC_EDIT, "Deployment from dummy resource {} updated");
   }
 
   @Override
   public void onDelete(Deployment deployment, boolean deletedFinalStateUnknown) {
-    tryToAdd(deployment, "Deployment from dummy resource {} deleted");
+    tryToAdd(deployment, Lane.REPAIR, "Deployment from dummy resource {} deleted");
   }
 }
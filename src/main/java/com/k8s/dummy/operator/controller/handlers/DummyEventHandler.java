@@ -1,36 +1,53 @@
 package com.k8s.dummy.operator.controller.handlers;
 
+import com.k8s.dummy.operator.controller.cache.GenerationCache;
+import com.k8s.dummy.operator.controller.queue.Lane;
+import com.k8s.dummy.operator.controller.queue.WorkQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
 import com.k8s.dummy.operator.model.v1beta1.Dummy;
-import java.util.Queue;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Event handler for our custom resource Dummy.
+ * The desired Deployment of a deleted Dummy is evicted from the cache of desired Deployments.
  */
 public class DummyEventHandler extends EventHandler<Dummy> {
   private static final Logger LOGGER = LoggerFactory.getLogger(DummyEventHandler.class);
 
-  public DummyEventHandler(Queue<String> queue) {
-    super(queue);
+  private final GenerationCache<Dummy, Deployment> desiredDeployments;
+
+  /**
+   * Create a DummyEventHandler.
+   *
+   * @param queue queue where the changed Dummies are added
+   * @param shard the Dummy resources this replica reconciles
+   * @param desiredDeployments desired Deployments by Dummy UID and generation
+   */
+  public DummyEventHandler(WorkQueue<String> queue, Shard shard,
+                           GenerationCache<Dummy, Deployment> desiredDeployments) {
+    super(queue, shard);
+    this.desiredDeployments = desiredDeployments;
   }
 
   @Override
   public void onAdd(Dummy dummy) {
     LOGGER.info("{} dummy added", dummy.getMetaName());
-    addToQueue(getFqn(dummy.getMetaspace(), dummy.getMetaName()));
+    addToQueue(getFqn(dummy.getMetaspace(), dummy.getMetaName()), Lane.NEW);
   }
 
   @Override
   public void onUpdate(Dummy oldDummy, Dummy newDummy) {
     if (!newDummy.getSpec().equals(oldDummy.getSpec())) {
       LOGGER.info("{} dummy updated", oldDummy.getMetaName());
-      addToQueue(getFqn(newDummy.getMetaspace(), newDummy.getMetaName()));
+      addToQueue(getFqn(newDummy.getMetaspace(), newDummy.getMetaName()), Lane.SPEC_EDIT);
     }
   }
 
   @Override
   public void onDelete(Dummy dummy, boolean deletedFinalStateUnknown) {
     LOGGER.info("{} dummy deleted", dummy.getMetaName());
+    desiredDeployments.evict(dummy.getMetadata().getUid());
   }
 }
@@ -1,21 +1,38 @@
 package com.k8s.dummy.operator.controller.handlers;
 
+import com.k8s.dummy.operator.controller.queue.Lane;
+import com.k8s.dummy.operator.controller.queue.WorkQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
 import io.fabric8.kubernetes.client.informers.ResourceEventHandler;
-import java.util.Queue;
 
 /**
  * A generic event handler will have a queue to where it will add resource names
  * and it will be able to build a Fully Qualified Name from the namespace and name.
+ * Only the resources of the shard of this replica are added to the queue, in the lane
+ * matching the urgency of the event.
  */
 public abstract class EventHandler<T> implements ResourceEventHandler<T> {
-  private final Queue<String> queue;
+  private final WorkQueue<String> queue;
+  private final Shard shard;
 
-  protected EventHandler(Queue<String> queue) {
+  protected EventHandler(WorkQueue<String> queue, Shard shard) {
     this.queue = queue;
+    this.shard = shard;
   }
 
-  public void addToQueue(String name) {
-    queue.add(name);
+  /**
+   * Add the resource to a lane of the queue if it belongs to the shard of this replica.
+   *
+   * @param name resource name in the namespace/name format
+   * @param lane lane of the queue where the resource waits
+   * @return boolean true if the resource was added, false if it belongs to another shard
+   */
+  public boolean addToQueue(String name, Lane lane) {
+    if (!shard.owns(name)) {
+      return false;
+    }
+    queue.add(name, lane);
+    return true;
   }
 
   public String getFqn(String namespace, String name) {
@@ -0,0 +1,16 @@
+package com.k8s.dummy.operator.controller.handlers;
+
+/**
+ * Receives the outcome of the informer events seen by an event handler.
+ */
+public interface EventMetrics {
+  EventMetrics NOOP = (resource, queued) -> { };
+
+  /**
+   * Observe an informer event.
+   *
+   * @param resource kind of the resource of the event
+   * @param queued true if the event queued a resource, false if it was filtered out
+   */
+  void observeEvent(String resource, boolean queued);
+}
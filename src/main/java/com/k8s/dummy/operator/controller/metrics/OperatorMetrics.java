@@ -0,0 +1,134 @@
+package com.k8s.dummy.operator.controller.metrics;
+
+import com.k8s.dummy.operator.controller.client.AsyncEnhancedClient;
+import com.k8s.dummy.operator.controller.handlers.EventMetrics;
+import com.k8s.dummy.operator.controller.queue.Lane;
+import com.k8s.dummy.operator.controller.queue.QueueMetrics;
+import com.k8s.dummy.operator.controller.queue.WorkQueue;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters published by the operator for its queue, event handlers and control loop.
+ * The meters of the known outcomes and resources are registered once, in the constructor,
+ * any other is registered the first time it is seen.
+ */
+public class OperatorMetrics implements QueueMetrics, EventMetrics {
+  public static final String CREATED = "created";
+  public static final String EDITED = "edited";
+  public static final String NOOP = "no-op";
+  public static final String ERROR = "error";
+  public static final String QUEUED = "queued";
+  public static final String FILTERED = "filtered";
+  private static final List<String> OUTCOMES = List.of(CREATED, EDITED, NOOP, ERROR);
+  private static final List<String> RESOURCES = List.of("deployment");
+
+  private final MeterRegistry registry;
+  private final Timer queueWait;
+  private final ConcurrentMap<String, Timer> reconciles = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, EventCounters> events = new ConcurrentHashMap<>();
+
+  /**
+   * Create the operator meters in the registry.
+   *
+   * @param registry registry where the meters are published
+   */
+  public OperatorMetrics(MeterRegistry registry) {
+    this.registry = registry;
+    this.queueWait = Timer.builder("operator.queue.wait")
+                          .description("Time between a resource being queued and reconciled")
+                          .publishPercentileHistogram()
+                          .register(registry);
+    OUTCOMES.forEach(outcome -> reconciles.put(outcome, createReconcileTimer(outcome)));
+    RESOURCES.forEach(resource -> events.put(resource, new EventCounters(resource)));
+  }
+
+  /**
+   * Publish the number of resources waiting in the queue.
+   *
+   * @param queue work queue
+   */
+  public void monitorQueue(WorkQueue<?> queue) {
+    Gauge.builder("operator.queue.depth", queue, WorkQueue::size)
+         .description("Number of resources waiting to be reconciled")
+         .register(registry);
+    for (Lane lane : Lane.values()) {
+      Gauge.builder("operator.queue.lane.depth", queue, workQueue -> workQueue.size(lane))
+           .description("Number of resources waiting to be reconciled in a lane")
+           .tag("lane", lane.name().toLowerCase())
+           .register(registry);
+    }
+  }
+
+  /**
+   * Publish the number of requests in flight of the asynchronous client.
+   *
+   * @param asyncClient asynchronous client
+   */
+  public void monitorClient(AsyncEnhancedClient<?> asyncClient) {
+    Gauge.builder("operator.client.in-flight", asyncClient, AsyncEnhancedClient::getInFlight)
+         .description("Number of requests sent by the reconciles and not finished yet")
+         .register(registry);
+  }
+
+  @Override
+  public void observeWait(long waitNanos) {
+    queueWait.record(waitNanos, TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void observeEvent(String resource, boolean queued) {
+    EventCounters counters = events.computeIfAbsent(resource, EventCounters::new);
+    (queued ? counters.queued : counters.filtered).increment();
+  }
+
+  /**
+   * Record the duration of a reconcile.
+   *
+   * @param outcome created, edited, no-op or error
+   * @param durationNanos duration of the reconcile in nanoseconds
+   */
+  public void recordReconcile(String outcome, long durationNanos) {
+    reconciles.computeIfAbsent(outcome, this::createReconcileTimer)
+              .record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  public MeterRegistry getRegistry() {
+    return registry;
+  }
+
+  private Timer createReconcileTimer(String outcome) {
+    return Timer.builder("operator.reconcile")
+                .description("Time spent reconciling a resource")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+  }
+
+  private Counter createEventCounter(String resource, String outcome) {
+    return Counter.builder("operator.events")
+                  .description("Informer events seen by the event handlers")
+                  .tag("resource", resource)
+                  .tag("outcome", outcome)
+                  .register(registry);
+  }
+
+  /**
+   * The counters of the events of a resource queued and filtered out.
+   */
+  private class EventCounters {
+    private final Counter queued;
+    private final Counter filtered;
+
+    EventCounters(String resource) {
+      this.queued = createEventCounter(resource, QUEUED);
+      this.filtered = createEventCounter(resource, FILTERED);
+    }
+  }
+}
@@ -0,0 +1,28 @@
+package com.k8s.dummy.operator.controller.queue;
+
+import com.k8s.dummy.operator.controller.flowcontrol.TokenBucket;
+
+/**
+ * A rate limiter shared by all items, backed by a token bucket. It does not track items.
+ */
+public class BucketRateLimiter<T> implements RateLimiter<T> {
+  private final TokenBucket bucket;
+
+  public BucketRateLimiter(double qps, int burst) {
+    this.bucket = new TokenBucket(qps, burst);
+  }
+
+  @Override
+  public long when(T item) {
+    return bucket.reserve();
+  }
+
+  @Override
+  public void forget(T item) {
+  }
+
+  @Override
+  public int numRequeues(T item) {
+    return 0;
+  }
+}
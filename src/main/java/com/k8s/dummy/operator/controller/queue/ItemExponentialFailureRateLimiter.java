@@ -0,0 +1,44 @@
+package com.k8s.dummy.operator.controller.queue;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A rate limiter that doubles the delay of an item each time it fails, starting from
+ * the base delay and never going over the max delay.
+ */
+public class ItemExponentialFailureRateLimiter<T> implements RateLimiter<T> {
+  private final Map<T, Integer> failures = new ConcurrentHashMap<>();
+  private final long baseDelay;
+  private final long maxDelay;
+
+  /**
+   * Create a rate limiter with exponential backoff per item.
+   *
+   * @param baseDelay delay in milliseconds after the first failure
+   * @param maxDelay maximum delay in milliseconds
+   */
+  public ItemExponentialFailureRateLimiter(long baseDelay, long maxDelay) {
+    this.baseDelay = baseDelay;
+    this.maxDelay = maxDelay;
+  }
+
+  @Override
+  public long when(T item) {
+    int exponent = failures.merge(item, 1, Integer::sum) - 1;
+    if (exponent >= Long.numberOfLeadingZeros(baseDelay) - 1) {
+      return maxDelay;
+    }
+    return Math.min(baseDelay << exponent, maxDelay);
+  }
+
+  @Override
+  public void forget(T item) {
+    failures.remove(item);
+  }
+
+  @Override
+  public int numRequeues(T item) {
+    return failures.getOrDefault(item, 0);
+  }
+}
@@ -0,0 +1,23 @@
+package com.k8s.dummy.operator.controller.queue;
+
+/**
+ * Lanes of the work queue, from the most to the least urgent. When every lane has items
+ * waiting, each lane gets a share of the items taken proportional to its weight, so urgent
+ * items go first without the other lanes starving.
+ */
+public enum Lane {
+  REPAIR(8),
+  NEW(4),
+  SPEC_EDIT(2),
+  AUDIT(1);
+
+  private final int weight;
+
+  Lane(int weight) {
+    this.weight = weight;
+  }
+
+  public int getWeight() {
+    return weight;
+  }
+}
@@ -0,0 +1,34 @@
+package com.k8s.dummy.operator.controller.queue;
+
+import java.util.List;
+
+/**
+ * A rate limiter that delays an item by the longest delay of the rate limiters it wraps.
+ */
+public class MaxOfRateLimiter<T> implements RateLimiter<T> {
+  private final List<RateLimiter<T>> limiters;
+
+  @SafeVarargs
+  public MaxOfRateLimiter(RateLimiter<T>... limiters) {
+    this.limiters = List.of(limiters);
+  }
+
+  @Override
+  public long when(T item) {
+    long delay = 0;
+    for (RateLimiter<T> limiter : limiters) {
+      delay = Math.max(delay, limiter.when(item));
+    }
+    return delay;
+  }
+
+  @Override
+  public void forget(T item) {
+    limiters.forEach(limiter -> limiter.forget(item));
+  }
+
+  @Override
+  public int numRequeues(T item) {
+    return limiters.stream().mapToInt(limiter -> limiter.numRequeues(item)).max().orElse(0);
+  }
+}
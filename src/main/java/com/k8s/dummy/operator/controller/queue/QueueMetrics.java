@@ -0,0 +1,10 @@
+package com.k8s.dummy.operator.controller.queue;
+
+/**
+ * Receives the measurements taken by a work queue.
+ */
+public interface QueueMetrics {
+  QueueMetrics NOOP = waitNanos -> { };
+
+  void observeWait(long waitNanos);
+}
@@ -0,0 +1,13 @@
+package com.k8s.dummy.operator.controller.queue;
+
+/**
+ * A generic RateLimiter tells how long an item has to wait before being queued again and
+ * keeps track of how many times it was requeued until it is forgotten.
+ */
+public interface RateLimiter<T> {
+  long when(T item);
+
+  void forget(T item);
+
+  int numRequeues(T item);
+}
@@ -0,0 +1,77 @@
+package com.k8s.dummy.operator.controller.queue;
+
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A work queue where items can be added after a delay, either given or decided by
+ * a rate limiter. Delayed items are added by a single scheduler thread when their delay ends,
+ * so they still go through the deduplication of the work queue.
+ */
+public class RateLimitingQueue<T> extends WorkQueue<T> {
+  private final RateLimiter<T> rateLimiter;
+  private final ScheduledExecutorService scheduler;
+
+  public RateLimitingQueue(RateLimiter<T> rateLimiter) {
+    this(rateLimiter, QueueMetrics.NOOP);
+  }
+
+  /**
+   * Create a rate limiting queue.
+   *
+   * @param rateLimiter rate limiter deciding the delay of items added with addRateLimited
+   * @param metrics receives the measurements taken by the queue
+   */
+  public RateLimitingQueue(RateLimiter<T> rateLimiter, QueueMetrics metrics) {
+    super(metrics);
+    this.rateLimiter = rateLimiter;
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "operator-queue-scheduler");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public void addAfter(T item, long delay) {
+    addAfter(item, delay, Lane.SPEC_EDIT);
+  }
+
+  /**
+   * Add an item to a lane once the delay ends. Items without delay are added right away.
+   *
+   * @param item item to add
+   * @param delay delay in milliseconds
+   * @param lane lane where the item waits
+   */
+  public void addAfter(T item, long delay, Lane lane) {
+    if (delay <= 0) {
+      add(item, lane);
+      return;
+    }
+    scheduler.schedule(() -> add(item, lane), delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Add an item after the delay decided by the rate limiter, in the lane it was taken from.
+   *
+   * @param item item to add
+   */
+  public void addRateLimited(T item) {
+    Lane lane = Optional.ofNullable(getLane(item)).orElse(Lane.SPEC_EDIT);
+    addAfter(item, rateLimiter.when(item), lane);
+  }
+
+  public void forget(T item) {
+    rateLimiter.forget(item);
+  }
+
+  public int numRequeues(T item) {
+    return rateLimiter.numRequeues(item);
+  }
+
+  public void shutdown() {
+    scheduler.shutdownNow();
+  }
+}
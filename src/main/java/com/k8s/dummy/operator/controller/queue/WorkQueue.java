@@ -0,0 +1,249 @@
+package com.k8s.dummy.operator.controller.queue;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A work queue in the style of the client-go one. An item that is already waiting is only
+ * queued once and an item that is being processed is marked as dirty and queued again, once,
+ * when it is marked as done. This way the queue size is bounded by the number of distinct items
+ * instead of the number of times they were added.
+ * Items wait in the lane they were added to, an item added again to a more urgent lane moves
+ * to it, and lanes are served by weighted round robin (@see Lane).
+ * The time between an item being added and taken is reported to the queue metrics.
+ */
+public class WorkQueue<T> {
+  private static final Lane DEFAULT_LANE = Lane.SPEC_EDIT;
+
+  private final Map<Lane, Set<T>> lanes = new EnumMap<>(Lane.class);
+  private final Map<Lane, Integer> credits = new EnumMap<>(Lane.class);
+  private final Map<T, Lane> dirty = new HashMap<>();
+  private final Map<T, Lane> processing = new HashMap<>();
+  private final Map<T, Long> addedAt = new HashMap<>();
+  private final Map<T, Long> processingAddedAt = new HashMap<>();
+  private final QueueMetrics metrics;
+  private int size;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+
+  public WorkQueue() {
+    this(QueueMetrics.NOOP);
+  }
+
+  /**
+   * Create a work queue.
+   *
+   * @param metrics receives the measurements taken by the queue
+   */
+  public WorkQueue(QueueMetrics metrics) {
+    this.metrics = metrics;
+    for (Lane lane : Lane.values()) {
+      lanes.put(lane, new LinkedHashSet<>());
+      credits.put(lane, lane.getWeight());
+    }
+  }
+
+  public void add(T item) {
+    add(item, DEFAULT_LANE);
+  }
+
+  /**
+   * Add an item to a lane of the queue unless it is already waiting in that lane or in a more
+   * urgent one. If the item is being processed it is only marked as dirty and will be queued
+   * again when {@link #done(Object)} is called.
+   *
+   * @param item item to add
+   * @param lane lane where the item waits
+   */
+  public void add(T item, Lane lane) {
+    lock.lock();
+    try {
+      Lane queued = dirty.get(item);
+      if (queued != null && queued.compareTo(lane) <= 0) {
+        return;
+      }
+      dirty.put(item, lane);
+      if (queued == null) {
+        addedAt.put(item, System.nanoTime());
+      }
+      if (processing.containsKey(item)) {
+        return;
+      }
+      if (queued != null) {
+        lanes.get(queued).remove(item);
+        size--;
+      }
+      enqueue(item, lane);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Wait for the next item and mark it as being processed. Every item taken must be
+   * marked as done with {@link #done(Object)} after being processed.
+   *
+   * @return the next item
+   * @throws InterruptedException when current thread is interrupted
+   */
+  public T take() throws InterruptedException {
+    lock.lockInterruptibly();
+    try {
+      while (size == 0) {
+        notEmpty.await();
+      }
+      Lane lane = nextLane();
+      Iterator<T> items = lanes.get(lane).iterator();
+      T item = items.next();
+      items.remove();
+      size--;
+      dirty.remove(item);
+      processing.put(item, lane);
+      long added = addedAt.remove(item);
+      processingAddedAt.put(item, added);
+      metrics.observeWait(System.nanoTime() - added);
+      return item;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Mark an item as processed. If it was added again in the meantime it goes back to the queue.
+   *
+   * @param item item previously returned by {@link #take()}
+   */
+  public void done(T item) {
+    lock.lock();
+    try {
+      processing.remove(item);
+      processingAddedAt.remove(item);
+      Lane lane = dirty.get(item);
+      if (lane != null) {
+        enqueue(item, lane);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Remove an item waiting in the queue. An item being processed is not affected, but it is no
+   * longer queued again when marked as done.
+   *
+   * @param item item to remove
+   * @return true if the item was waiting
+   */
+  public boolean remove(T item) {
+    lock.lock();
+    try {
+      Lane lane = dirty.remove(item);
+      if (lane == null) {
+        return false;
+      }
+      addedAt.remove(item);
+      if (!processing.containsKey(item)) {
+        lanes.get(lane).remove(item);
+        size--;
+      }
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Lane of an item being processed or waiting.
+   *
+   * @param item item
+   * @return the lane it was taken from or waits in, null if the queue does not know it
+   */
+  public Lane getLane(T item) {
+    lock.lock();
+    try {
+      Lane lane = processing.get(item);
+      return lane != null ? lane : dirty.get(item);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Time an item being processed was added to the queue, before it was taken.
+   *
+   * @param item item previously returned by {@link #take()}
+   * @return System.nanoTime when it was added, null if it is not being processed
+   */
+  public Long getAddedAt(T item) {
+    lock.lock();
+    try {
+      return processingAddedAt.get(item);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of items waiting to be processed.
+   *
+   * @return int
+   */
+  public int size() {
+    lock.lock();
+    try {
+      return size;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Number of items waiting to be processed in a lane.
+   *
+   * @param lane lane
+   * @return int
+   */
+  public int size(Lane lane) {
+    lock.lock();
+    try {
+      return lanes.get(lane).size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void enqueue(T item, Lane lane) {
+    lanes.get(lane).add(item);
+    size++;
+    notEmpty.signal();
+  }
+
+  /**
+   * Pick the most urgent lane with items that still has credits. When none has, every lane
+   * gets credits equal to its weight again, so each lane with items is served at least
+   * weight times per round.
+   *
+   * @return Lane
+   */
+  private Lane nextLane() {
+    while (true) {
+      for (Lane lane : Lane.values()) {
+        int left = credits.get(lane);
+        if (left > 0 && !lanes.get(lane).isEmpty()) {
+          credits.put(lane, left - 1);
+          return lane;
+        }
+      }
+      for (Lane lane : Lane.values()) {
+        credits.put(lane, lane.getWeight());
+      }
+    }
+  }
+}
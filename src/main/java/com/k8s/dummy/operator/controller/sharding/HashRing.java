@@ -0,0 +1,72 @@
+package com.k8s.dummy.operator.controller.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A consistent hash ring. Every member is placed on the ring a number of times and a key
+ * belongs to the first member found clockwise from the hash of the key, so when a member
+ * joins or leaves only the keys next to its positions change owner.
+ */
+public class HashRing {
+  private final NavigableMap<Long, String> ring = new TreeMap<>();
+  private final Set<String> members;
+
+  /**
+   * Create a ring with the given members.
+   *
+   * @param members identities of the members
+   * @param virtualNodes number of positions of each member on the ring
+   */
+  public HashRing(Collection<String> members, int virtualNodes) {
+    this.members = new TreeSet<>(members);
+    for (String member : this.members) {
+      for (int i = 0; i < virtualNodes; i++) {
+        ring.put(hash(member + "#" + i), member);
+      }
+    }
+  }
+
+  /**
+   * Find the member owning a key.
+   *
+   * @param key key to place on the ring
+   * @return identity of the owner or null if the ring has no members
+   */
+  public String getOwner(String key) {
+    return getOwner(hash(key));
+  }
+
+  String getOwner(long keyHash) {
+    if (ring.isEmpty()) {
+      return null;
+    }
+    Map.Entry<Long, String> owner = ring.ceilingEntry(keyHash);
+    return owner != null ? owner.getValue() : ring.firstEntry().getValue();
+  }
+
+  public Set<String> getMembers() {
+    return members;
+  }
+
+  static long hash(String value) {
+    try {
+      byte[] digest = MessageDigest.getInstance("MD5")
+                                   .digest(value.getBytes(StandardCharsets.UTF_8));
+      long hash = 0;
+      for (int i = 0; i < 8; i++) {
+        hash = (hash << 8) | (digest[i] & 0xff);
+      }
+      return hash;
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
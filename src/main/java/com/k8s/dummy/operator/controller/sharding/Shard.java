@@ -0,0 +1,24 @@
+package com.k8s.dummy.operator.controller.sharding;
+
+/**
+ * The part of the Dummy resources this operator replica is responsible for.
+ */
+public interface Shard {
+  Shard ALL = key -> true;
+
+  /**
+   * Check if a resource belongs to this shard.
+   *
+   * @param key resource key in the namespace/name format
+   * @return boolean
+   */
+  boolean owns(String key);
+
+  /**
+   * Register a listener called whenever the resources of the shard change.
+   *
+   * @param listener listener to call
+   */
+  default void addRebalanceListener(Runnable listener) {
+  }
+}
@@ -0,0 +1,301 @@
+package com.k8s.dummy.operator.controller.sharding;
+
+import com.k8s.dummy.operator.controller.client.EnhancedClient;
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import io.fabric8.kubernetes.api.model.HasMetadata;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Splits the namespaces between the operator replicas. Every replica keeps a Lease of its own
+ * renewed and lists the Leases of the others, the members are the replicas whose Lease did not
+ * expire and namespaces are assigned to them by consistent hashing. Every replica computes the
+ * same assignment from the same Leases, so no leader is needed, and when a replica joins or
+ * leaves only the namespaces next to it on the ring move.
+ * A Lease expires when its resource version did not change for its duration, measured with
+ * the clock of this replica from the time the change was seen, so the clocks of the replicas
+ * never have to agree. A replica that cannot renew its own Lease stops owning any namespace
+ * before the others consider it gone.
+ * Namespaces are released before they are acquired: each replica publishes in its Lease the
+ * members of the ring it applies, a replica gives up the namespaces it loses as soon as its
+ * ring changes and only takes a namespace once no other live replica claims it in its Lease.
+ * The Lease is created once and then renewed with a single patch, it is only created again
+ * if it was deleted.
+ * Only the reconciles are sharded: the informers of every replica still list and watch all
+ * the namespaces the operator watches, so sharding does not reduce their memory nor watches.
+ */
+public class ShardManager implements Shard {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ShardManager.class);
+  private static final int NOT_FOUND = 404;
+  private static final int CONFLICT = 409;
+  public static final String MEMBER_LABEL = HasMetadata.getGroup(Dummy.class) + "/shard-member";
+  public static final String MEMBERS_ANNOTATION =
+      HasMetadata.getGroup(Dummy.class) + "/shard-members";
+
+  private final EnhancedClient<?> enhancedClient;
+  private final String namespace;
+  private final String identity;
+  private final long leaseDuration;
+  private final long renewPeriod;
+  private final int virtualNodes;
+  private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService scheduler;
+  private final Map<String, Observation> observations = new HashMap<>();
+
+  private volatile HashRing ring;
+  private volatile HashRing claimed;
+  private volatile Map<String, HashRing> peerClaims = Map.of();
+  private List<Object> notified = List.of();
+  private boolean leaseCreated = false;
+  private volatile long renewedAt;
+
+  /**
+   * Create a ShardManager. It only joins the other replicas after being started.
+   *
+   * @param enhancedClient client that follows an EnhancedClient interface
+   * @param namespace namespace of the Leases
+   * @param identity unique identity of this replica
+   * @param leaseDuration milliseconds after which a Lease that was not renewed expires
+   * @param renewPeriod milliseconds between renewals of the Lease of this replica
+   * @param virtualNodes number of positions of each replica on the hash ring
+   */
+  public ShardManager(EnhancedClient<?> enhancedClient, String namespace, String identity,
+                      long leaseDuration, long renewPeriod, int virtualNodes) {
+    this.enhancedClient = enhancedClient;
+    this.namespace = namespace;
+    this.identity = identity;
+    this.leaseDuration = leaseDuration;
+    this.renewPeriod = renewPeriod;
+    this.virtualNodes = virtualNodes;
+    this.ring = new HashRing(List.of(), virtualNodes);
+    this.claimed = ring;
+    this.renewedAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(leaseDuration);
+    this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "operator-shard-manager");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Renew the Lease of this replica and read the members once, so the shard is known when
+   * this method returns, and keep doing it periodically.
+   */
+  public void start() {
+    renew();
+    scheduler.scheduleAtFixedRate(this::renew, renewPeriod, renewPeriod, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Stop renewing, release every namespace and delete the Lease of this replica so the others
+   * take its namespaces without waiting for it to expire.
+   */
+  public void shutdown() {
+    scheduler.shutdownNow();
+    renewedAt = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(leaseDuration);
+    try {
+      enhancedClient.deleteLease(generateLease(ring));
+      leaseCreated = false;
+    } catch (KubernetesClientException e) {
+      LOGGER.warn("Error while deleting lease {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public boolean owns(String key) {
+    if (System.nanoTime() - renewedAt >= TimeUnit.MILLISECONDS.toNanos(leaseDuration)) {
+      return false;
+    }
+    int separator = key.indexOf('/');
+    long keyHash = HashRing.hash(separator < 0 ? key : key.substring(0, separator));
+    if (!identity.equals(ring.getOwner(keyHash))
+        || !identity.equals(claimed.getOwner(keyHash))) {
+      return false;
+    }
+    for (Map.Entry<String, HashRing> peer : peerClaims.entrySet()) {
+      if (peer.getKey().equals(peer.getValue().getOwner(keyHash))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void addRebalanceListener(Runnable listener) {
+    listeners.add(listener);
+  }
+
+  public Set<String> getMembers() {
+    return ring.getMembers();
+  }
+
+  /**
+   * Renew the Lease of this replica, rebuild the ring if the members changed and publish it.
+   * The listeners are called whenever the ring, the ring published or the claims of the other
+   * replicas change, since any of them may give namespaces to this replica.
+   * Errors are logged and never thrown, so the periodic renewal keeps running.
+   */
+  void renew() {
+    try {
+      long now = System.nanoTime();
+      HashRing published = ring;
+      writeLease(generateLease(published));
+      renewedAt = now;
+      claimed = published;
+      Map<String, HashRing> claims = getPeerClaims(System.nanoTime());
+      Set<String> members = new TreeSet<>(claims.keySet());
+      members.add(identity);
+      peerClaims = claims;
+      if (!members.equals(ring.getMembers())) {
+        LOGGER.info("Shard members changed from {} to {}", ring.getMembers(), members);
+        ring = new HashRing(members, virtualNodes);
+        writeLease(generateLease(ring));
+        claimed = ring;
+      }
+    } catch (KubernetesClientException e) {
+      LOGGER.warn("Error while renewing lease {}", e.getMessage());
+    } catch (RuntimeException e) {
+      LOGGER.error("Error while rebalancing shard", e);
+    }
+    notifyListeners();
+  }
+
+  /**
+   * Patch the Lease of this replica, creating it the first time and whenever it was deleted.
+   * A Lease left by a previous run with the same identity is patched instead of created.
+   */
+  private void writeLease(Lease lease) {
+    if (leaseCreated) {
+      try {
+        enhancedClient.renewLease(lease);
+        return;
+      } catch (KubernetesClientException e) {
+        if (e.getCode() != NOT_FOUND) {
+          throw e;
+        }
+        leaseCreated = false;
+      }
+    }
+    try {
+      enhancedClient.createLease(lease);
+    } catch (KubernetesClientException e) {
+      if (e.getCode() != CONFLICT) {
+        throw e;
+      }
+      enhancedClient.renewLease(lease);
+    }
+    leaseCreated = true;
+  }
+
+  private void notifyListeners() {
+    List<Object> state = List.of(ring.getMembers(), claimed.getMembers(),
+                                 getClaimedMembers(peerClaims));
+    if (state.equals(notified)) {
+      return;
+    }
+    notified = state;
+    try {
+      listeners.forEach(Runnable::run);
+    } catch (RuntimeException e) {
+      LOGGER.error("Error while rebalancing shard", e);
+    }
+  }
+
+  /**
+   * List the Leases of the other replicas and keep the live ones.
+   *
+   * @param now System.nanoTime when the Leases were listed
+   * @return Map with the ring each live replica claims, by identity
+   */
+  private Map<String, HashRing> getPeerClaims(long now) {
+    List<Lease> leases = enhancedClient.getLeases(namespace, MEMBER_LABEL).stream()
+        .filter(lease -> lease.getSpec() != null && lease.getSpec().getHolderIdentity() != null
+                         && !identity.equals(lease.getSpec().getHolderIdentity()))
+        .collect(Collectors.toList());
+    observations.keySet().retainAll(leases.stream()
+                                          .map(lease -> lease.getSpec().getHolderIdentity())
+                                          .collect(Collectors.toSet()));
+    Map<String, HashRing> claims = new HashMap<>();
+    for (Lease lease : leases) {
+      String holder = lease.getSpec().getHolderIdentity();
+      Observation observation = observations.get(holder);
+      if (observation == null || !observation.isSameVersion(lease)) {
+        observation = new Observation(lease, now);
+        observations.put(holder, observation);
+      }
+      if (now - observation.observedAt < TimeUnit.MILLISECONDS.toNanos(getDuration(lease))) {
+        claims.put(holder, observation.claimed);
+      }
+    }
+    return claims;
+  }
+
+  private long getDuration(Lease lease) {
+    return Optional.ofNullable(lease.getSpec().getLeaseDurationSeconds())
+                   .map(seconds -> TimeUnit.SECONDS.toMillis(seconds))
+                   .orElse(leaseDuration);
+  }
+
+  private static Map<String, Set<String>> getClaimedMembers(Map<String, HashRing> claims) {
+    return claims.entrySet().stream()
+                 .collect(Collectors.toMap(Map.Entry::getKey,
+                                           claim -> claim.getValue().getMembers()));
+  }
+
+  private Lease generateLease(HashRing published) {
+    return new LeaseBuilder()
+                .withNewMetadata()
+                  .withName("dummy-operator-" + identity)
+                  .withNamespace(namespace)
+                  .addToLabels(MEMBER_LABEL, "true")
+                  .addToAnnotations(MEMBERS_ANNOTATION, String.join(",", published.getMembers()))
+                  .endMetadata()
+                .withNewSpec()
+                  .withHolderIdentity(identity)
+                  .withLeaseDurationSeconds((int) TimeUnit.MILLISECONDS.toSeconds(leaseDuration))
+                  .withRenewTime(ZonedDateTime.now())
+                  .endSpec()
+                .build();
+  }
+
+  /**
+   * A version of the Lease of another replica and the time this replica first saw it.
+   */
+  private class Observation {
+    private final String resourceVersion;
+    private final long observedAt;
+    private final HashRing claimed;
+
+    Observation(Lease lease, long observedAt) {
+      this.resourceVersion = lease.getMetadata().getResourceVersion();
+      this.observedAt = observedAt;
+      String members = Optional.ofNullable(lease.getMetadata().getAnnotations())
+                               .map(annotations -> annotations.get(MEMBERS_ANNOTATION))
+                               .orElse("");
+      this.claimed = new HashRing(members.isEmpty()
+                                  ? List.of() : Arrays.asList(members.split(",")),
+                                  virtualNodes);
+    }
+
+    boolean isSameVersion(Lease lease) {
+      return Objects.equals(resourceVersion, lease.getMetadata().getResourceVersion());
+    }
+  }
+}
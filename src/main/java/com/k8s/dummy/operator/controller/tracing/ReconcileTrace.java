@@ -0,0 +1,121 @@
+package com.k8s.dummy.operator.controller.tracing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The spans of one reconcile of a Dummy, children of a root span covering the whole reconcile.
+ * Spans may be added from the threads sending the writes until the trace is finished, the
+ * trace must not be changed afterwards. Times are taken with System.nanoTime and turned into
+ * nanoseconds since the epoch relative to the start of the trace.
+ * The NOOP trace records nothing, it is used when the reconcile is not traced.
+ */
+public class ReconcileTrace {
+  public static final ReconcileTrace NOOP = new ReconcileTrace("", false);
+
+  private final long traceIdHigh;
+  private final long traceIdLow;
+  private final long spanId;
+  private final String key;
+  private final boolean recording;
+  private final long startNanoTime;
+  private final long startTimeUnixNano;
+  private final List<Span> spans = Collections.synchronizedList(new ArrayList<>());
+  private long endTimeUnixNano;
+  private String outcome;
+
+  ReconcileTrace(String key, boolean recording) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    this.traceIdHigh = random.nextLong();
+    this.traceIdLow = random.nextLong();
+    this.spanId = random.nextLong();
+    this.key = key;
+    this.recording = recording;
+    this.startNanoTime = System.nanoTime();
+    this.startTimeUnixNano = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+  }
+
+  /**
+   * Add a span to the trace.
+   *
+   * @param name name of the step
+   * @param start System.nanoTime when the step started
+   * @param end System.nanoTime when the step ended
+   */
+  public void addSpan(String name, long start, long end) {
+    if (recording) {
+      spans.add(new Span(name, ThreadLocalRandom.current().nextLong(), toUnixNano(start),
+                         toUnixNano(end)));
+    }
+  }
+
+  /**
+   * End the root span.
+   *
+   * @param outcome outcome of the reconcile, created, edited, no-op or error
+   */
+  public void finish(String outcome) {
+    if (recording) {
+      this.outcome = outcome;
+      this.endTimeUnixNano = toUnixNano(System.nanoTime());
+    }
+  }
+
+  public String getTraceId() {
+    return Span.toHex(traceIdHigh) + Span.toHex(traceIdLow);
+  }
+
+  public String getSpanId() {
+    return Span.toHex(spanId);
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public String getOutcome() {
+    return outcome;
+  }
+
+  /**
+   * Start of the root span, the start of its first span when it began before the trace was
+   * started, as the wait in the queue does.
+   *
+   * @return long in nanoseconds since the epoch
+   */
+  public long getStartTimeUnixNano() {
+    long start = startTimeUnixNano;
+    synchronized (spans) {
+      for (Span span : spans) {
+        start = Math.min(start, span.getStartTimeUnixNano());
+      }
+    }
+    return start;
+  }
+
+  public long getEndTimeUnixNano() {
+    return endTimeUnixNano;
+  }
+
+  public double getDurationMillis() {
+    return (endTimeUnixNano - getStartTimeUnixNano()) / 1e6;
+  }
+
+  /**
+   * Spans of the steps of the reconcile.
+   *
+   * @return List of Span ordered by the time they ended
+   */
+  public List<Span> getSpans() {
+    synchronized (spans) {
+      return new ArrayList<>(spans);
+    }
+  }
+
+  private long toUnixNano(long nanoTime) {
+    return startTimeUnixNano + nanoTime - startNanoTime;
+  }
+}
@@ -0,0 +1,146 @@
+package com.k8s.dummy.operator.controller.tracing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.k8s.dummy.operator.controller.metrics.OperatorMetrics;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the traces of the last reconciles in a fixed-size ring buffer, each new trace taking the
+ * slot of the oldest one. Recording a trace takes a slot with an atomic increment and never
+ * blocks the workers, a trace overwritten while being read is simply missing from the result.
+ * When its logger is at DEBUG level each trace is also logged as one line of OTLP/JSON, the
+ * format of the OpenTelemetry protocol, so it can be shipped to a tracing backend by the log
+ * collector without a collector next to the operator.
+ */
+public class ReconcileTracer {
+  private static final Logger LOGGER = LoggerFactory.getLogger(ReconcileTracer.class);
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String SERVICE_NAME = "dummy-operator";
+  private static final String CLIENT_SPAN_PREFIX = "client.";
+  private static final int SPAN_KIND_INTERNAL = 1;
+  private static final int SPAN_KIND_CLIENT = 3;
+  private static final int STATUS_CODE_ERROR = 2;
+
+  private final AtomicReferenceArray<ReconcileTrace> traces;
+  private final AtomicLong next = new AtomicLong();
+
+  /**
+   * Create a ReconcileTracer.
+   *
+   * @param bufferSize number of traces kept, 0 to trace nothing
+   */
+  public ReconcileTracer(int bufferSize) {
+    this.traces = new AtomicReferenceArray<>(Math.max(0, bufferSize));
+  }
+
+  /**
+   * Start the trace of a reconcile.
+   *
+   * @param key key of the Dummy reconciled
+   * @return ReconcileTrace, the NOOP one if nothing is traced
+   */
+  public ReconcileTrace start(String key) {
+    return traces.length() > 0 ? new ReconcileTrace(key, true) : ReconcileTrace.NOOP;
+  }
+
+  /**
+   * Keep a finished trace and log it.
+   *
+   * @param trace trace finished with {@link ReconcileTrace#finish(String)}
+   */
+  public void record(ReconcileTrace trace) {
+    if (trace == ReconcileTrace.NOOP) {
+      return;
+    }
+    traces.set((int) (next.getAndIncrement() % traces.length()), trace);
+    if (LOGGER.isDebugEnabled()) {
+      try {
+        LOGGER.debug(MAPPER.writeValueAsString(toOtlp(trace)));
+      } catch (JsonProcessingException e) {
+        LOGGER.warn("Error exporting the trace of {}: {}", trace.getKey(), e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * Slowest of the traces kept.
+   *
+   * @param limit maximum number of traces returned
+   * @return List of ReconcileTrace, slowest first
+   */
+  public List<ReconcileTrace> getSlowest(int limit) {
+    List<ReconcileTrace> snapshot = new ArrayList<>(traces.length());
+    for (int i = 0; i < traces.length(); i++) {
+      ReconcileTrace trace = traces.get(i);
+      if (trace != null) {
+        snapshot.add(trace);
+      }
+    }
+    return snapshot.stream()
+                   .sorted(Comparator.comparingDouble(ReconcileTrace::getDurationMillis)
+                                     .reversed())
+                   .limit(Math.max(0, limit))
+                   .collect(Collectors.toList());
+  }
+
+  /**
+   * Turn a trace into an OTLP/JSON export request with a root span for the whole reconcile and
+   * a child span for each step.
+   *
+   * @param trace finished trace
+   * @return Map to serialize as JSON
+   */
+  static Map<String, Object> toOtlp(ReconcileTrace trace) {
+    List<Object> spans = new ArrayList<>();
+    Map<String, Object> root = toOtlpSpan(trace, trace.getSpanId(), null, "reconcile",
+                                          SPAN_KIND_INTERNAL, trace.getStartTimeUnixNano(),
+                                          trace.getEndTimeUnixNano());
+    root.put("attributes", List.of(toAttribute("dummy.key", trace.getKey()),
+                                   toAttribute("reconcile.outcome", trace.getOutcome())));
+    if (OperatorMetrics.ERROR.equals(trace.getOutcome())) {
+      root.put("status", Map.of("code", STATUS_CODE_ERROR));
+    }
+    spans.add(root);
+    for (Span span : trace.getSpans()) {
+      int kind = span.getName().startsWith(CLIENT_SPAN_PREFIX)
+          ? SPAN_KIND_CLIENT : SPAN_KIND_INTERNAL;
+      spans.add(toOtlpSpan(trace, span.getSpanId(), trace.getSpanId(), span.getName(), kind,
+                           span.getStartTimeUnixNano(), span.getEndTimeUnixNano()));
+    }
+    return Map.of("resourceSpans", List.of(Map.of(
+        "resource", Map.of("attributes", List.of(toAttribute("service.name", SERVICE_NAME))),
+        "scopeSpans", List.of(Map.of(
+            "scope", Map.of("name", ReconcileTracer.class.getPackageName()),
+            "spans", spans)))));
+  }
+
+  private static Map<String, Object> toOtlpSpan(ReconcileTrace trace, String spanId,
+                                                String parentSpanId, String name, int kind,
+                                                long start, long end) {
+    Map<String, Object> span = new LinkedHashMap<>();
+    span.put("traceId", trace.getTraceId());
+    span.put("spanId", spanId);
+    if (parentSpanId != null) {
+      span.put("parentSpanId", parentSpanId);
+    }
+    span.put("name", name);
+    span.put("kind", kind);
+    span.put("startTimeUnixNano", String.valueOf(start));
+    span.put("endTimeUnixNano", String.valueOf(end));
+    return span;
+  }
+
+  private static Map<String, Object> toAttribute(String key, String value) {
+    return Map.of("key", key, "value", Map.of("stringValue", String.valueOf(value)));
+  }
+}
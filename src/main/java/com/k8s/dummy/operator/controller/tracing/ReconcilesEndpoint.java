@@ -0,0 +1,33 @@
+package com.k8s.dummy.operator.controller.tracing;
+
+import java.util.List;
+import java.util.Optional;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+/**
+ * Actuator endpoint listing the slowest of the recent reconciles kept by the tracer, with the
+ * time spent in each of their steps.
+ */
+@Endpoint(id = "reconciles")
+public class ReconcilesEndpoint {
+  private static final int DEFAULT_LIMIT = 10;
+
+  private final ReconcileTracer tracer;
+
+  public ReconcilesEndpoint(ReconcileTracer tracer) {
+    this.tracer = tracer;
+  }
+
+  /**
+   * Slowest recent reconciles.
+   *
+   * @param limit maximum number of reconciles listed, 10 by default
+   * @return List of ReconcileTrace, slowest first
+   */
+  @ReadOperation
+  public List<ReconcileTrace> slowest(@Nullable Integer limit) {
+    return tracer.getSlowest(Optional.ofNullable(limit).orElse(DEFAULT_LIMIT));
+  }
+}
@@ -0,0 +1,58 @@
+package com.k8s.dummy.operator.controller.tracing;
+
+/**
+ * A timed step of a reconcile, such as the queue wait, a cache lookup or an API call.
+ * Times are nanoseconds since the epoch, as in OpenTelemetry.
+ */
+public class Span {
+  private final String name;
+  private final long spanId;
+  private final long startTimeUnixNano;
+  private final long endTimeUnixNano;
+
+  /**
+   * Create a Span.
+   *
+   * @param name name of the step
+   * @param spanId random number identifying the span
+   * @param startTimeUnixNano start of the step in nanoseconds since the epoch
+   * @param endTimeUnixNano end of the step in nanoseconds since the epoch
+   */
+  public Span(String name, long spanId, long startTimeUnixNano, long endTimeUnixNano) {
+    this.name = name;
+    this.spanId = spanId;
+    this.startTimeUnixNano = startTimeUnixNano;
+    this.endTimeUnixNano = endTimeUnixNano;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getSpanId() {
+    return toHex(spanId);
+  }
+
+  public long getStartTimeUnixNano() {
+    return startTimeUnixNano;
+  }
+
+  public long getEndTimeUnixNano() {
+    return endTimeUnixNano;
+  }
+
+  public double getDurationMillis() {
+    return (endTimeUnixNano - startTimeUnixNano) / 1e6;
+  }
+
+  /**
+   * Format an identifier the way OpenTelemetry does, as lowercase hexadecimal characters.
+   *
+   * @param id identifier
+   * @return String with 16 hexadecimal characters
+   */
+  static String toHex(long id) {
+    String hex = Long.toHexString(id);
+    return "0".repeat(16 - hex.length()) + hex;
+  }
+}
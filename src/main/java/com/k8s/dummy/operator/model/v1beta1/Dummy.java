@@ -1,5 +1,6 @@
 package com.k8s.dummy.operator.model.v1beta1;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.fabric8.kubernetes.api.model.Namespaced;
 import io.fabric8.kubernetes.api.model.ObjectReference;
 import io.fabric8.kubernetes.api.model.ObjectReferenceBuilder;
@@ -18,6 +19,7 @@ public class Dummy extends CustomResource<DummySpec, DummyStatus> implements Nam
    *
    * @return ObjectReference
    */
+  @JsonIgnore
   public ObjectReference getObjectReference() {
     return new ObjectReferenceBuilder()
                   .withApiVersion(getApiVersion())
@@ -33,6 +35,7 @@ public class Dummy extends CustomResource<DummySpec, DummyStatus> implements Nam
    *
    * @return OwnerReference
    */
+  @JsonIgnore
   public OwnerReference getOwnerReference() {
     return new OwnerReferenceBuilder()
                   .withController(true)
@@ -43,10 +46,12 @@ public class Dummy extends CustomResource<DummySpec, DummyStatus> implements Nam
                   .build();
   }
 
+  @JsonIgnore
   public String getMetaName() {
     return getMetadata().getName();
   }
 
+  @JsonIgnore
   public String getMetaspace() {
     return getMetadata().getNamespace();
   }
@@ -1,19 +1,58 @@
 package com.k8s.dummy.operator.model.v1beta1;
 
+import java.util.Objects;
+
 public class DummyStatus {
   private int timesChanged = 0;
+  private Long observedGeneration;
+  private String specHash;
+
+  public DummyStatus() {
+  }
+
+  /**
+   * Create a copy of a DummyStatus.
+   *
+   * @param status status to copy
+   */
+  public DummyStatus(DummyStatus status) {
+    this.timesChanged = status.getTimesChanged();
+    this.observedGeneration = status.getObservedGeneration();
+    this.specHash = status.getSpecHash();
+  }
 
   public int getTimesChanged() {
     return timesChanged;
   }
 
+  public void setTimesChanged(int timesChanged) {
+    this.timesChanged = timesChanged;
+  }
+
   public void incrementTimesChanged() {
     this.timesChanged += 1;
   }
 
+  public Long getObservedGeneration() {
+    return observedGeneration;
+  }
+
+  public void setObservedGeneration(Long observedGeneration) {
+    this.observedGeneration = observedGeneration;
+  }
+
+  public String getSpecHash() {
+    return specHash;
+  }
+
+  public void setSpecHash(String specHash) {
+    this.specHash = specHash;
+  }
+
   @Override
   public String toString() {
-    return "DummyStatus{ timesChanged=" + timesChanged + "}";
+    return "DummyStatus{ timesChanged=" + timesChanged + ", observedGeneration="
+           + observedGeneration + ", specHash=" + specHash + "}";
   }
 
   @Override
@@ -31,6 +70,7 @@ public class DummyStatus {
     if (timesChanged != other.getTimesChanged()) {
       return false;
     }
-    return true;
+    return Objects.equals(observedGeneration, other.getObservedGeneration())
+           && Objects.equals(specHash, other.getSpecHash());
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,315 @@
+package com.k8s.dummy.operator;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.k8s.dummy.operator.controller.DummyController;
+import com.k8s.dummy.operator.controller.cache.CacheSync;
+import com.k8s.dummy.operator.controller.cache.GenerationCache;
+import com.k8s.dummy.operator.controller.client.AsyncEnhancedClient;
+import com.k8s.dummy.operator.controller.client.DeploymentUpdateMode;
+import com.k8s.dummy.operator.controller.client.EnhancedClient;
+import com.k8s.dummy.operator.controller.events.EventRecorder;
+import com.k8s.dummy.operator.controller.metrics.OperatorMetrics;
+import com.k8s.dummy.operator.controller.queue.RateLimitingQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
+import com.k8s.dummy.operator.controller.tracing.ReconcileTrace;
+import com.k8s.dummy.operator.controller.tracing.ReconcileTracer;
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummyList;
+import com.k8s.dummy.operator.model.v1beta1.DummySpec;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.dsl.base.CustomResourceDefinitionContext;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import io.fabric8.kubernetes.client.informers.cache.Indexer;
+import io.fabric8.kubernetes.client.informers.cache.Lister;
+import io.fabric8.kubernetes.client.server.mock.KubernetesCrudDispatcher;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import io.fabric8.mockwebserver.Context;
+import io.fabric8.zjsonpatch.JsonDiff;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+
+/**
+ * Test class.
+ * Load test of the whole operator against the mock API server in CRUD mode, with the informers
+ * and queue created by OperatorConfigs. Only runs with the load-test profile, the number of
+ * Dummies, the burst size, the milliseconds between bursts and the number of workers can be
+ * changed with the system properties loadtest.dummies, loadtest.burst-size,
+ * loadtest.burst-interval and loadtest.workers.
+ * The mock API server only supports JSON patches, merge patches sent by the operator are
+ * turned into JSON patches against the stored object before being handled.
+ */
+@Tag("load")
+public class OperatorLoadTests {
+  private static final String kindName = "Dummy";
+  private static final int namespaces = 10;
+  private static final long convergenceTimeout = 600000;
+  private static final File report = new File("target/load-test-report.json");
+  private static final Logger mockServerLogger = Logger.getLogger(MockWebServer.class.getName());
+
+  private final int dummies = Integer.getInteger("loadtest.dummies", 2000);
+  private final int burstSize = Integer.getInteger("loadtest.burst-size", 500);
+  private final long burstInterval = Long.getLong("loadtest.burst-interval", 1000);
+  private final int workers = Integer.getInteger("loadtest.workers", 4);
+  private final boolean slimDeployments = Boolean.getBoolean("loadtest.slim-deployments");
+
+  private KubernetesMockServer server;
+  private KubernetesClient client;
+
+  private MeterRegistry registry;
+  private RateLimitingQueue<String> queue;
+  private EventRecorder eventRecorder;
+  private List<SharedIndexInformer<?>> informers;
+  private Lister<Dummy> dummyLister;
+  private Indexer<Deployment> deployIndexer;
+  private GenerationCache<Dummy, Deployment> desiredDeployments;
+  private GenerationCache<Deployment, String> liveSpecHashes;
+  private CacheSync cacheSync;
+  private OperatorMetrics operatorMetrics;
+  private ReconcileTracer tracer;
+  private EnhancedClient<?> enhancedClient;
+  private AsyncEnhancedClient<?> asyncClient;
+
+  /**
+   * Create the operator beans the same way the application context does.
+   */
+  @BeforeEach
+  void operatorSetup() {
+    mockServerLogger.setLevel(Level.WARNING);
+    server = new KubernetesMockServer(new Context(), new MockWebServer(), new HashMap<>(),
+                                      new MergePatchCrudDispatcher(), false);
+    server.init();
+    client = server.createClient();
+
+    OperatorConfigs configs = new OperatorConfigs();
+    registry = new SimpleMeterRegistry();
+    enhancedClient = configs.getEnhancedKubernetesClient(client, registry,
+                                                         DeploymentUpdateMode.PATCH, 50, 1, 100);
+    operatorMetrics = configs.getOperatorMetrics(registry);
+    eventRecorder = configs.getEventRecorder(enhancedClient, 1000, 600000, 30000);
+    asyncClient = configs.getAsyncEnhancedClient(enhancedClient, operatorMetrics, 8, 8);
+    queue = configs.getQueue(5, 300000, 10, 100, operatorMetrics);
+    desiredDeployments = configs.getDesiredDeployments(10000);
+    liveSpecHashes = configs.getLiveSpecHashes(10000);
+    tracer = configs.getReconcileTracer(1000);
+    List<String> namespaces = configs.getNamespaces("");
+    List<SharedIndexInformer<Dummy>> dummyInformers = configs.createDummyInformers(
+        client, configs.getDummyEventHandler(queue, Shard.ALL, desiredDeployments), namespaces,
+        40000);
+    List<SharedIndexInformer<Deployment>> deploymentInformers = configs.createDeploymentInformers(
+        client, configs.geDeploymentEventHandler(queue, kindName, Shard.ALL, operatorMetrics),
+        kindName, namespaces, 40000, slimDeployments);
+    informers = new ArrayList<>(dummyInformers);
+    informers.addAll(deploymentInformers);
+    dummyLister = configs.createDummyLister(dummyInformers, namespaces);
+    deployIndexer = configs.createDeploymentIndexer(deploymentInformers, namespaces);
+    cacheSync = configs.getCacheSync(dummyInformers, deploymentInformers, 120000);
+  }
+
+  @AfterEach
+  void operatorTearDown() {
+    informers.forEach(SharedIndexInformer::stop);
+    eventRecorder.shutdown();
+    asyncClient.shutdown();
+    queue.shutdown();
+    client.close();
+    server.destroy();
+  }
+
+  @Test
+  void testDummiesConvergeUnderLoad() throws InterruptedException, IOException {
+    SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("load-test-worker-");
+    executor.setDaemon(true);
+    new DummyController(asyncClient, eventRecorder, kindName, Map.of("xgeeks", kindName),
+                        queue, dummyLister, deployIndexer, desiredDeployments, liveSpecHashes,
+                        cacheSync, operatorMetrics, tracer, Shard.ALL, executor, workers, 15,
+                        10000, 4);
+    assertTrue(cacheSync.awaitSynced());
+
+    final int requestsBefore = server.getRequestCount();
+    final long start = System.nanoTime();
+    for (int created = 0; created < dummies; created += burstSize) {
+      if (created > 0) {
+        Thread.sleep(burstInterval);
+      }
+      for (int i = created; i < Math.min(created + burstSize, dummies); i++) {
+        Dummy dummy = generateDummy(i);
+        client.customResources(Dummy.class, DummyList.class)
+              .inNamespace(dummy.getMetaspace())
+              .create(dummy);
+      }
+    }
+    final long created = System.nanoTime();
+    final boolean converged = awaitConvergence(start);
+    final long end = System.nanoTime();
+
+    writeReport(converged, (created - start) / 1000000, (end - start) / 1000000,
+                server.getRequestCount() - requestsBefore - dummies);
+    assertTrue(converged);
+  }
+
+  /**
+   * Wait until every Dummy has its Deployment and status in the operator caches and the
+   * reconciles that wrote them are recorded, which happens once their writes completed.
+   */
+  private boolean awaitConvergence(long start) throws InterruptedException {
+    long deadline = start + convergenceTimeout * 1000000;
+    while (System.nanoTime() < deadline) {
+      if (deployIndexer.list().size() == dummies
+          && dummyLister.list().stream().allMatch(dummy -> dummy.getStatus() != null)
+          && queue.size() == 0
+          && registry.find("operator.reconcile").timers().stream()
+                     .mapToLong(Timer::count).sum() >= dummies) {
+        return true;
+      }
+      Thread.sleep(50);
+    }
+    return false;
+  }
+
+  private void writeReport(boolean converged, long burstMillis, long convergenceMillis,
+                           long operatorRequests) throws IOException {
+    Map<String, Long> outcomes = new LinkedHashMap<>();
+    long reconciles = 0;
+    for (Timer timer : registry.find("operator.reconcile").timers()) {
+      outcomes.put(timer.getId().getTag("outcome"), timer.count());
+      reconciles += timer.count();
+    }
+    Map<String, Double> events = new LinkedHashMap<>();
+    for (Counter counter : registry.find("operator.events").tag("resource", "deployment")
+                                   .counters()) {
+      events.put(counter.getId().getTag("outcome"), counter.count());
+    }
+    long clientRequests = registry.find("operator.client.requests").timers().stream()
+                                  .mapToLong(Timer::count).sum();
+
+    Map<String, Object> results = new LinkedHashMap<>();
+    results.put("dummies", dummies);
+    results.put("burstSize", burstSize);
+    results.put("burstInterval", burstInterval);
+    results.put("workers", workers);
+    results.put("slimDeployments", slimDeployments);
+    results.put("converged", converged);
+    results.put("creationMillis", burstMillis);
+    results.put("convergenceMillis", convergenceMillis);
+    results.put("reconciles", reconciles);
+    results.put("reconcilesByOutcome", outcomes);
+    results.put("reconcilesPerSecond", reconciles * 1000.0 / Math.max(1, convergenceMillis));
+    results.put("clientRequests", clientRequests);
+    results.put("deploymentEvents", events);
+    results.put("clientRequestsPerDummy", (double) clientRequests / dummies);
+    results.put("apiRequests", operatorRequests);
+    results.put("apiRequestsPerDummy", (double) operatorRequests / dummies);
+    results.put("slowestReconcileMillis", tracer.getSlowest(1).stream()
+                                                .mapToDouble(ReconcileTrace::getDurationMillis)
+                                                .findFirst().orElse(0));
+    report.getParentFile().mkdirs();
+    new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(report, results);
+  }
+
+  private Dummy generateDummy(int i) {
+    Dummy dummy = new Dummy();
+    dummy.setMetadata(new ObjectMetaBuilder().withName("dummy-" + i)
+                                             .withNamespace("namespace-" + i % namespaces)
+                                             .withUid(UUID.randomUUID().toString())
+                                             .build());
+    DummySpec spec = new DummySpec();
+    spec.setQuote("quote " + i);
+    spec.setSleep(20);
+    spec.setExtra(new String[] {"extra"});
+    spec.setReplicas(1);
+    dummy.setSpec(spec);
+    return dummy;
+  }
+
+  /**
+   * CRUD dispatcher that also accepts merge and strategic merge patches. The patch is merged
+   * into the stored object and sent to the JSON patch handler as the difference between them.
+   * Strategic merge patches are merged as plain merge patches, lists are replaced.
+   */
+  private static class MergePatchCrudDispatcher extends KubernetesCrudDispatcher {
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    MergePatchCrudDispatcher() {
+      super(List.of(getDummyContext()));
+    }
+
+    @Override
+    public MockResponse handlePatch(String path, String body, String contentType) {
+      if (contentType == null || contentType.contains("json-patch")) {
+        return super.handlePatch(path, body, contentType);
+      }
+      MockResponse current = handleGet(path.replaceFirst("/status$", ""));
+      if (current.getStatus().contains(" 404 ")) {
+        return current;
+      }
+      try {
+        JsonNode source = mapper.readTree(current.getBody().readUtf8());
+        JsonNode target = merge(source.deepCopy(), mapper.readTree(body));
+        return super.handlePatch(path, mapper.writeValueAsString(JsonDiff.asJson(source, target)),
+                                 "application/json-patch+json");
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    private static JsonNode merge(JsonNode target, JsonNode patch) {
+      if (!patch.isObject() || !target.isObject()) {
+        return patch;
+      }
+      ObjectNode merged = (ObjectNode) target;
+      Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+      while (fields.hasNext()) {
+        Map.Entry<String, JsonNode> field = fields.next();
+        if (field.getValue().isNull()) {
+          merged.remove(field.getKey());
+        } else if (merged.has(field.getKey())) {
+          merged.set(field.getKey(), merge(merged.get(field.getKey()), field.getValue()));
+        } else {
+          merged.set(field.getKey(), field.getValue());
+        }
+      }
+      return merged;
+    }
+
+    private static CustomResourceDefinitionContext getDummyContext() {
+      CustomResourceDefinitionContext context =
+          CustomResourceDefinitionContext.fromCustomResourceType(Dummy.class);
+      return new CustomResourceDefinitionContext.Builder()
+                    .withName(context.getName())
+                    .withGroup(context.getGroup())
+                    .withVersion(context.getVersion())
+                    .withPlural(context.getPlural())
+                    .withKind(context.getKind())
+                    .withScope(context.getScope())
+                    .withStatusSubresource(true)
+                    .build();
+    }
+  }
+}
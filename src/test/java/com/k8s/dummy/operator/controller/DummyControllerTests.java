@@ -7,15 +7,32 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 
+import com.k8s.dummy.operator.controller.cache.CacheSync;
+import com.k8s.dummy.operator.controller.cache.DeploymentIndexers;
+import com.k8s.dummy.operator.controller.cache.GenerationCache;
+import com.k8s.dummy.operator.controller.client.AsyncEnhancedClient;
 import com.k8s.dummy.operator.controller.client.EnhancedClient;
+import com.k8s.dummy.operator.controller.events.EventRecorder;
+import com.k8s.dummy.operator.controller.metrics.OperatorMetrics;
+import com.k8s.dummy.operator.controller.queue.ItemExponentialFailureRateLimiter;
+import com.k8s.dummy.operator.controller.queue.Lane;
+import com.k8s.dummy.operator.controller.queue.RateLimitingQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
+import com.k8s.dummy.operator.controller.tracing.ReconcileTrace;
+import com.k8s.dummy.operator.controller.tracing.ReconcileTracer;
+import com.k8s.dummy.operator.controller.tracing.Span;
 import com.k8s.dummy.operator.model.v1beta1.Dummy;
 import com.k8s.dummy.operator.model.v1beta1.DummySpec;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
 import io.fabric8.kubernetes.api.model.Container;
 import io.fabric8.kubernetes.api.model.ContainerBuilder;
 import io.fabric8.kubernetes.api.model.ObjectMeta;
@@ -24,11 +41,13 @@ import io.fabric8.kubernetes.api.model.PodTemplateSpec;
 import io.fabric8.kubernetes.api.model.apps.Deployment;
 import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
 import io.fabric8.kubernetes.api.model.events.v1.Event;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.informers.cache.Indexer;
 import io.fabric8.kubernetes.client.informers.cache.Lister;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,13 +60,20 @@ import org.springframework.core.task.AsyncTaskExecutor;
 public class DummyControllerTests {
 
   private static final String kindName = "test";
+  private static final int workers = 2;
+  private static final int maxRetries = 1;
   private static EnhancedClient enhancedClientMock;
+  private static EventRecorder eventRecorderMock;
   private static Lister<Dummy> dummyListerMock;
-  private static Lister<Deployment> deployListerMock;
+  private static Indexer<Deployment> deployIndexerMock;
   private static AsyncTaskExecutor asyncTaskExecuterMock;
+  private static CacheSync cacheSyncMock;
+  private static OperatorMetrics operatorMetrics;
+  private static ReconcileTracer tracer;
   private static DummyController dummyOperator;
 
-  private static final BlockingQueue<String> queue = new LinkedBlockingQueue<>();
+  private static final RateLimitingQueue<String> queue =
+      new RateLimitingQueue<>(new ItemExponentialFailureRateLimiter<>(60000, 60000));
   private final ObjectMeta defaultMetadata = new ObjectMetaBuilder().withName("testName")
                                                               .withNamespace("testNamespace")
                                                               .build();
@@ -59,23 +85,41 @@ public class DummyControllerTests {
   @BeforeAll
   static void setup() {
     enhancedClientMock = mock(EnhancedClient.class);
+    eventRecorderMock = mock(EventRecorder.class);
     dummyListerMock = mock(Lister.class);
-    deployListerMock = mock(Lister.class);
+    deployIndexerMock = mock(Indexer.class);
     asyncTaskExecuterMock = mock(AsyncTaskExecutor.class);
+    cacheSyncMock = mock(CacheSync.class);
+    operatorMetrics = new OperatorMetrics(new SimpleMeterRegistry());
+    tracer = new ReconcileTracer(10);
 
     doNothing().when(asyncTaskExecuterMock).execute(any());
+    doReturn(true).when(cacheSyncMock).isSynced();
     doNothing().when(enhancedClientMock).addDeployment(any());
-    doNothing().when(enhancedClientMock).editDeployment(any(), any());
-    doNothing().when(enhancedClientMock).updateStatus(any());
-    doNothing().when(enhancedClientMock).addEvent(any());
-
-    dummyOperator = new DummyController(enhancedClientMock,
+    doNothing().when(enhancedClientMock).editDeployment(any());
+    doNothing().when(enhancedClientMock).updateStatus(any(), any());
+    doReturn(true).when(eventRecorderMock).record(any());
+
+    AsyncEnhancedClient<?> asyncClient = new AsyncEnhancedClient<>(enhancedClientMock,
+                                                                   Runnable::run, 1);
+    dummyOperator = new DummyController(asyncClient,
+                                      eventRecorderMock,
                                       kindName,
                                       Map.of("xgeeks", "Dummy"),
                                       queue,
                                       dummyListerMock,
-                                      deployListerMock,
-                                      asyncTaskExecuterMock);
+                                      deployIndexerMock,
+                                      new GenerationCache<>(10),
+                                      new GenerationCache<>(10),
+                                      cacheSyncMock,
+                                      operatorMetrics,
+                                      tracer,
+                                      Shard.ALL,
+                                      asyncTaskExecuterMock,
+                                      workers,
+                                      maxRetries,
+                                      0,
+                                      0);
   }
 
   /** Create a Dummy object with a defaultMetadata, some default attributes for the specification
@@ -96,6 +140,11 @@ public class DummyControllerTests {
     dummy.setSpec(dummySpec);
   }
 
+  @Test
+  void testStartsOneThreadPerWorker() {
+    verify(asyncTaskExecuterMock, times(workers)).execute(dummyOperator);
+  }
+
   @Test
   void testPodTemplateCreation() {
     PodTemplateSpec podtemplateSpec = dummyOperator.generatePodTemplateSpec(dummy);
@@ -132,6 +181,38 @@ public class DummyControllerTests {
                  deployment.getSpec().getSelector().getMatchLabels().get(kindName));
   }
 
+  @Test
+  void testDeploymentIsAnnotatedWithSpecHash() {
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+
+    assertEquals(dummyOperator.generateSpecHash(dummy),
+                 deployment.getMetadata().getAnnotations()
+                           .get(DummyController.SPEC_HASH_ANNOTATION));
+    assertEquals(dummyOperator.generateSpecHash(dummy), dummyOperator.getSpecHash(deployment));
+  }
+
+  @Test
+  void testSpecHashChangesWithSpec() {
+    final String specHash = dummyOperator.generateSpecHash(dummy);
+    assertEquals(specHash, dummyOperator.generateSpecHash(dummy));
+
+    dummy.getSpec().setQuote("another quote");
+
+    assertFalse(specHash.equals(dummyOperator.generateSpecHash(dummy)));
+  }
+
+  @Test
+  void testIsDesiredDeploymentWhenTemplateIsMissing() {
+    Deployment deployment = new DeploymentBuilder().withMetadata(defaultMetadata)
+                                  .withNewSpec()
+                                  .withReplicas(dummy.getSpec().getReplicas())
+                                  .endSpec()
+                                .build();
+
+    assertFalse(dummyOperator.isDesiredDeployment(deployment,
+                dummyOperator.generateSpecHash(dummy)));
+  }
+
   @Test
   void testEventCreation() {
     final String action = "action";
@@ -153,74 +234,110 @@ public class DummyControllerTests {
   void testUpdateStatus() {
     assertNull(dummy.getStatus());
 
-    dummyOperator.updateStatus(dummy);
+    DummyStatus status = dummyOperator.updateStatus(dummy, "hash");
+
+    assertNull(dummy.getStatus());
+    assertNotNull(status);
+    assertEquals(0, status.getTimesChanged());
+    assertEquals("hash", status.getSpecHash());
+
+    dummy.setStatus(status);
+    DummyStatus nextStatus = dummyOperator.updateStatus(dummy, "hash");
 
-    assertNotNull(dummy.getStatus());
     assertEquals(0, dummy.getStatus().getTimesChanged());
+    assertEquals(1, nextStatus.getTimesChanged());
+  }
+
+  @Test
+  void testIsObservedWhenStatusMatchesGenerationAndDeployment() {
+    dummy.setMetadata(new ObjectMetaBuilder(defaultMetadata).withGeneration(2L).build());
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+    DummyStatus status = dummyOperator.updateStatus(dummy, dummyOperator.generateSpecHash(dummy));
+
+    assertFalse(dummyOperator.isObserved(dummy, deployment));
+
+    dummy.setStatus(status);
+    assertTrue(dummyOperator.isObserved(dummy, deployment));
+
+    dummy.setMetadata(new ObjectMetaBuilder(defaultMetadata).withGeneration(3L).build());
+    assertFalse(dummyOperator.isObserved(dummy, deployment));
+  }
+
+  @Test
+  void testAuditWritesTheStatusOnlyWhenItIsOutdated() {
+    dummy.setMetadata(new ObjectMetaBuilder(defaultMetadata).withGeneration(1L).build());
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+    doReturn(deployment).when(deployIndexerMock).getByKey(any());
+    dummy.setStatus(dummyOperator.updateStatus(dummy, dummyOperator.generateSpecHash(dummy)));
+
+    ReconcilePlan converged = dummyOperator.plan(dummy, true);
 
-    dummyOperator.updateStatus(dummy);
+    assertEquals(OperatorMetrics.NOOP, converged.getOutcome());
+    assertNull(converged.getStatus());
 
-    assertEquals(1, dummy.getStatus().getTimesChanged());
+    dummy.setMetadata(new ObjectMetaBuilder(defaultMetadata).withGeneration(2L).build());
+    ReconcilePlan observed = dummyOperator.plan(dummy, true);
+
+    assertEquals(OperatorMetrics.NOOP, observed.getOutcome());
+    assertEquals(Long.valueOf(2), observed.getStatus().getObservedGeneration());
+    assertEquals(dummy.getStatus().getTimesChanged(), observed.getStatus().getTimesChanged());
+  }
+
+  @Test
+  void testConvergedDummyIsOnlyComparedOnAudits() throws InterruptedException {
+    final String fqn = String.format("%s/%s", dummy.getMetaspace(), dummy.getMetaName());
+    dummy.setMetadata(new ObjectMetaBuilder(defaultMetadata).withGeneration(1L).build());
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+    dummy.setStatus(dummyOperator.updateStatus(dummy, dummyOperator.getSpecHash(deployment)));
+    dummy.getSpec().setQuote("changed without a new generation");
+    doReturn(dummy).when(dummyListerMock).get(fqn);
+    doReturn(deployment).when(deployIndexerMock).getByKey(fqn);
+    clearInvocations(enhancedClientMock);
+
+    queue.add(fqn);
+    dummyOperator.controlLoop();
+    verify(enhancedClientMock, times(0)).editDeployment(any());
+
+    queue.add(fqn, Lane.AUDIT);
+    dummyOperator.controlLoop();
+    verify(enhancedClientMock).editDeployment(dummyOperator.generateDeployment(dummy));
   }
 
   @Test
   void testIsDesiredDeploymentWhenArgsDontMatch() {
-    Container container = new ContainerBuilder()
-                                .withArgs(new String[0])
-                                .build();
-    Deployment deployment = new DeploymentBuilder().withNewSpec()
-                                        .withReplicas(dummy.getSpec().getReplicas())
-                                        .withNewTemplate()
-                                            .withNewSpec()
-                                                .withContainers(container)
-                                                .endSpec()
-                                            .endTemplate()
-                                        .endSpec()
-                                    .build();
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+    deployment.getSpec().getTemplate().getSpec().getContainers().get(0).setArgs(List.of());
+
+    assertFalse(dummyOperator.isDesiredDeployment(deployment,
+                dummyOperator.generateSpecHash(dummy)));
+  }
+
+  @Test
+  void testIsDesiredDeploymentWhenImageWasEditedByHand() {
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+    deployment.getSpec().getTemplate().getSpec().getContainers().get(0).setImage("alpine");
 
     assertFalse(dummyOperator.isDesiredDeployment(deployment,
-                dummyOperator.generatePodTemplateSpec(dummy), dummy.getSpec().getReplicas()));
+                deployment.getMetadata().getAnnotations()
+                          .get(DummyController.SPEC_HASH_ANNOTATION)));
   }
 
   @Test
   void testIsDesiredDeploymentWhenReplicasDontMatch() {
-    PodTemplateSpec desiredPodTemplateSpec = dummyOperator.generatePodTemplateSpec(dummy);
-    Container container = new ContainerBuilder()
-                        .withArgs(desiredPodTemplateSpec.getSpec().getContainers().get(0).getArgs())
-                        .build();
-    Deployment deployment = new DeploymentBuilder()
-                                  .withNewSpec()
-                                  .withReplicas(dummy.getSpec().getReplicas() + 1)
-                                  .withNewTemplate()
-                                      .withNewSpec()
-                                          .withContainers(container)
-                                          .endSpec()
-                                      .endTemplate()
-                                  .endSpec()
-                                .build();
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+    deployment.getSpec().setReplicas(dummy.getSpec().getReplicas() + 1);
 
     assertFalse(dummyOperator.isDesiredDeployment(deployment,
-                desiredPodTemplateSpec, dummy.getSpec().getReplicas()));
+                dummyOperator.generateSpecHash(dummy)));
   }
 
   @Test
   void testIsDesiredDeploymentSuccess() {
-    PodTemplateSpec desiredPodTemplateSpec = dummyOperator.generatePodTemplateSpec(dummy);
-    Container container = new ContainerBuilder()
-                        .withArgs(desiredPodTemplateSpec.getSpec().getContainers().get(0).getArgs())
-                        .build();
-    Deployment deployment = new DeploymentBuilder().withNewSpec()
-                                  .withReplicas(dummy.getSpec().getReplicas())
-                                  .withNewTemplate()
-                                      .withNewSpec()
-                                          .withContainers(container)
-                                          .endSpec()
-                                      .endTemplate()
-                                  .endSpec()
-                                .build();
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+    deployment.getMetadata().getAnnotations().remove(DummyController.SPEC_HASH_ANNOTATION);
 
-    assertTrue(dummyOperator.isDesiredDeployment(deployment, desiredPodTemplateSpec,
-               dummy.getSpec().getReplicas()));
+    assertTrue(dummyOperator.isDesiredDeployment(deployment,
+               dummyOperator.generateSpecHash(dummy)));
   }
 
   @Test
@@ -236,44 +353,69 @@ public class DummyControllerTests {
     assertEquals("DOWN", health.getStatus().getCode());
   }
 
+  @Test
+  void testWorkersKeepWaitingForCachesAfterTimeout() throws InterruptedException {
+    clearInvocations(cacheSyncMock);
+    doReturn(false).doReturn(false).doThrow(new InterruptedException())
+        .when(cacheSyncMock).awaitSynced();
+
+    dummyOperator.run();
+
+    verify(cacheSyncMock, times(3)).awaitSynced();
+  }
+
   @Test
   void testCreateWhenDummyExistsAndDeploymentDoesNot() throws InterruptedException {
     final String fqn = String.format("%s/%s", dummy.getMetaspace(), dummy.getMetaName());
     queue.add(fqn);
 
     doReturn(dummy).when(dummyListerMock).get(fqn);
-    doReturn(List.of()).when(deployListerMock).list();
+    doReturn(null).when(deployIndexerMock).getByKey(fqn);
 
     dummyOperator.controlLoop();
 
     verify(enhancedClientMock).addDeployment(dummyOperator.generateDeployment(dummy));
   }
 
+  @Test
+  void testControlLoopTracesTheReconcile() throws InterruptedException {
+    final String fqn = String.format("%s/%s", dummy.getMetaspace(), dummy.getMetaName());
+    queue.add(fqn);
+
+    doReturn(dummy).when(dummyListerMock).get(fqn);
+    doReturn(null).when(deployIndexerMock).getByKey(fqn);
+
+    dummyOperator.controlLoop();
+
+    ReconcileTrace trace = tracer.getSlowest(10).stream()
+                                 .filter(slow -> slow.getKey().equals(fqn)
+                                                 && slow.getOutcome().equals(
+                                                     OperatorMetrics.CREATED)
+                                                 && slow.getSpans().stream().anyMatch(
+                                                     span -> span.getName().equals(
+                                                         "dummy.lookup")))
+                                 .findFirst().get();
+    assertEquals(List.of("queue.wait", "dummy.lookup", "deployment.lookup",
+                         "deployment.generate", "client.addDeployment", "client.updateStatus"),
+                 trace.getSpans().stream().map(Span::getName).collect(Collectors.toList()));
+    assertTrue(trace.getDurationMillis() >= trace.getSpans().get(0).getDurationMillis());
+  }
+
   @Test
   void testEditWhenDummyExistsAndDeploymentDoesAndIsDesired() throws InterruptedException {
     final String fqn = String.format("%s/%s", dummy.getMetaspace(), dummy.getMetaName());
     queue.add(fqn);
 
-    PodTemplateSpec desiredPodTemplateSpec = dummyOperator.generatePodTemplateSpec(dummy);
-    Container container = new ContainerBuilder()
-                        .withArgs(desiredPodTemplateSpec.getSpec().getContainers().get(0).getArgs())
-                        .build();
-    Deployment deployment = new DeploymentBuilder().withMetadata(defaultMetadata).withNewSpec()
-                                  .withReplicas(dummy.getSpec().getReplicas())
-                                  .withNewTemplate()
-                                      .withNewSpec()
-                                          .withContainers(container)
-                                          .endSpec()
-                                      .endTemplate()
-                                  .endSpec()
-                                .build();
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
 
     doReturn(dummy).when(dummyListerMock).get(fqn);
-    doReturn(List.of(deployment)).when(deployListerMock).list();
+    doReturn(deployment).when(deployIndexerMock).getByKey(fqn);
+    final long noops = reconcileCount(OperatorMetrics.NOOP);
 
     dummyOperator.controlLoop();
 
-    verify(enhancedClientMock, times(0)).updateStatus(dummy);
+    verify(enhancedClientMock, times(0)).updateStatus(any(), any());
+    assertEquals(noops + 1, reconcileCount(OperatorMetrics.NOOP));
   }
 
   @Test
@@ -295,11 +437,118 @@ public class DummyControllerTests {
                                 .build();
 
     doReturn(dummy).when(dummyListerMock).get(fqn);
-    doReturn(List.of(deployment)).when(deployListerMock).list();
+    doReturn(deployment).when(deployIndexerMock).getByKey(fqn);
 
     dummyOperator.controlLoop();
 
-    verify(enhancedClientMock).editDeployment(dummy,
-                   dummyOperator.generatePodTemplateSpec(dummy));
+    verify(enhancedClientMock).editDeployment(dummyOperator.generateDeployment(dummy));
+  }
+
+  @Test
+  void testStatusIsNotWrittenWhenDeploymentWriteFails() throws InterruptedException {
+    final String fqn = String.format("%s/%s", dummy.getMetaspace(), dummy.getMetaName());
+    doReturn(dummy).when(dummyListerMock).get(fqn);
+    doReturn(null).when(deployIndexerMock).getByKey(fqn);
+    doThrow(new KubernetesClientException("conflict"))
+        .when(enhancedClientMock).addDeployment(any());
+    clearInvocations(enhancedClientMock);
+
+    queue.add(fqn);
+    dummyOperator.controlLoop();
+
+    verify(enhancedClientMock, times(0)).updateStatus(any(), any());
+    queue.forget(fqn);
+    doNothing().when(enhancedClientMock).addDeployment(any());
+  }
+
+  @Test
+  void testNoOpStatusOfStaleDummyIsRequeuedOnConflict() throws InterruptedException {
+    final String fqn = String.format("%s/%s", dummy.getMetaspace(), dummy.getMetaName());
+    dummy.setMetadata(new ObjectMetaBuilder(defaultMetadata).withGeneration(1L)
+                                                            .withResourceVersion("1").build());
+    Deployment deployment = dummyOperator.generateDeployment(dummy);
+    dummy.setStatus(dummyOperator.updateStatus(dummy, dummyOperator.getSpecHash(deployment)));
+    Dummy stale = new Dummy();
+    stale.setMetadata(new ObjectMetaBuilder(dummy.getMetadata()).withGeneration(2L).build());
+    stale.setSpec(dummy.getSpec());
+    stale.setStatus(dummy.getStatus());
+    doReturn(stale).when(dummyListerMock).get(fqn);
+    doReturn(deployment).when(deployIndexerMock).getByKey(fqn);
+    doThrow(new KubernetesClientException("conflict", 409, null))
+        .when(enhancedClientMock).updateStatus(any(), any());
+    clearInvocations(enhancedClientMock);
+
+    queue.add(fqn);
+    dummyOperator.controlLoop();
+
+    verify(enhancedClientMock).updateStatus(eq(stale), any());
+    verify(enhancedClientMock, times(0)).editDeployment(any());
+    assertEquals(1, queue.numRequeues(fqn));
+    queue.forget(fqn);
+    doNothing().when(enhancedClientMock).updateStatus(any(), any());
+  }
+
+  @Test
+  void testReconcileAllTakesTheDummiesOutOfTheQueue() throws InterruptedException {
+    final String fqn = String.format("%s/%s", dummy.getMetaspace(), dummy.getMetaName());
+    Dummy other = new Dummy();
+    other.setMetadata(new ObjectMetaBuilder(defaultMetadata).withName("otherName").build());
+    other.setSpec(new DummySpec());
+    doReturn(List.of(dummy, other)).when(dummyListerMock).list();
+    doReturn(null).when(deployIndexerMock).getByKey(any());
+    clearInvocations(enhancedClientMock);
+    queue.add(fqn);
+    queue.add(String.format("%s/%s", other.getMetaspace(), other.getMetaName()));
+    final long created = reconcileCount(OperatorMetrics.CREATED);
+    final long errors = reconcileCount(OperatorMetrics.ERROR);
+
+    Map<String, Long> summary = dummyOperator.reconcileAll(2);
+
+    assertEquals(Map.of(OperatorMetrics.CREATED, 1L, OperatorMetrics.ERROR, 1L), summary);
+    assertEquals(created + 1, reconcileCount(OperatorMetrics.CREATED));
+    assertEquals(errors + 1, reconcileCount(OperatorMetrics.ERROR));
+    assertTrue(tracer.getSlowest(10).stream()
+                     .anyMatch(trace -> trace.getKey().equals("testNamespace/otherName")
+                                        && OperatorMetrics.ERROR.equals(trace.getOutcome())));
+    verify(enhancedClientMock).addDeployment(dummyOperator.generateDeployment(dummy));
+    assertEquals(0, queue.size());
+    assertEquals(1, queue.numRequeues("testNamespace/otherName"));
+    queue.forget("testNamespace/otherName");
+    clearInvocations(enhancedClientMock);
+  }
+
+  @Test
+  void testGetDeploymentPrefersOwnedDeployment() {
+    dummy.setMetadata(new ObjectMetaBuilder(defaultMetadata).withUid("uid").build());
+    Deployment owned = dummyOperator.generateDeployment(dummy);
+
+    doReturn(List.of(owned)).when(deployIndexerMock)
+        .byIndex(DeploymentIndexers.BY_OWNER_UID, "uid");
+
+    assertEquals(owned, dummyOperator.getDeployment(dummy).get());
+  }
+
+  @Test
+  void testRequeueWhenClientFailsUntilMaxRetries() throws InterruptedException {
+    final String fqn = String.format("%s/%s", dummy.getMetaspace(), dummy.getMetaName());
+    doReturn(dummy).when(dummyListerMock).get(fqn);
+    doReturn(null).when(deployIndexerMock).getByKey(fqn);
+    doThrow(new KubernetesClientException("conflict"))
+        .when(enhancedClientMock).addDeployment(any());
+
+    queue.add(fqn);
+    dummyOperator.controlLoop();
+    assertEquals(1, queue.numRequeues(fqn));
+
+    queue.add(fqn);
+    dummyOperator.controlLoop();
+    assertEquals(0, queue.numRequeues(fqn));
+
+    doNothing().when(enhancedClientMock).addDeployment(any());
+  }
+
+  private long reconcileCount(String outcome) {
+    return operatorMetrics.getRegistry().find("operator.reconcile").tag("outcome", outcome)
+                          .timers().stream().mapToLong(timer -> timer.count()).sum();
   }
 }
@@ -0,0 +1,54 @@
+package com.k8s.dummy.operator.controller.audit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.k8s.dummy.operator.controller.queue.WorkQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class DriftAuditorTests {
+
+  @Test
+  void testEveryDummyIsAuditedOncePerPeriodWithFlatLoad() throws InterruptedException {
+    WorkQueue<String> queue = new WorkQueue<>();
+    DriftAuditor driftAuditor = new DriftAuditor(queue, Shard.ALL, 60000, 60);
+    for (int i = 0; i < 6000; i++) {
+      driftAuditor.track("namespace/dummy-" + i);
+    }
+    driftAuditor.track("namespace/dummy-0");
+
+    Set<String> audited = new HashSet<>();
+    for (int tick = 0; tick < 60; tick++) {
+      driftAuditor.advance();
+      int due = queue.size();
+      assertTrue(due >= 80 && due <= 120, "slot with " + due + " dummies");
+      for (int i = 0; i < due; i++) {
+        String key = queue.take();
+        assertTrue(audited.add(key));
+        queue.done(key);
+      }
+    }
+    assertEquals(6000, audited.size());
+  }
+
+  @Test
+  void testOnlyTrackedDummiesOfTheShardAreAudited() {
+    WorkQueue<String> queue = new WorkQueue<>();
+    DriftAuditor driftAuditor = new DriftAuditor(queue, key -> key.startsWith("mine/"), 1000, 1);
+    driftAuditor.track("mine/a");
+    driftAuditor.track("mine/b");
+    driftAuditor.track("other/c");
+    driftAuditor.untrack("mine/b");
+
+    driftAuditor.advance();
+
+    assertEquals(2, driftAuditor.size());
+    assertEquals(1, queue.size());
+  }
+}
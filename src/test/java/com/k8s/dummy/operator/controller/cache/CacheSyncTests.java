@@ -0,0 +1,47 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.informers.SharedIndexInformer;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class CacheSyncTests {
+
+  @Test
+  void testHealthDownUntilCachesSynced() {
+    SharedIndexInformer<?> informer = mock(SharedIndexInformer.class);
+    CacheSync cacheSync = new CacheSync(List.of(informer), 0);
+
+    doReturn(false).when(informer).hasSynced();
+    assertEquals("DOWN", cacheSync.health().getStatus().getCode());
+
+    doReturn(true).when(informer).hasSynced();
+    assertEquals("UP", cacheSync.health().getStatus().getCode());
+  }
+
+  @Test
+  void testInformersStartedTogetherAndFailedListLeavesCacheNotSynced() {
+    SharedIndexInformer<?> failing = mock(SharedIndexInformer.class);
+    SharedIndexInformer<?> informer = mock(SharedIndexInformer.class);
+    doThrow(new KubernetesClientException("forbidden", 403, null)).when(failing).run();
+    doReturn(false).when(failing).hasSynced();
+    doReturn(true).when(informer).hasSynced();
+    CacheSync cacheSync = new CacheSync(List.of(failing, informer), 0);
+
+    cacheSync.start();
+
+    verify(failing, timeout(1000)).run();
+    verify(informer, timeout(1000)).run();
+    assertEquals("DOWN", cacheSync.health().getStatus().getCode());
+  }
+}
@@ -0,0 +1,35 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class CachedValueTests {
+
+  @Test
+  void testValueIsReusedUntilItExpires() throws InterruptedException {
+    AtomicInteger calls = new AtomicInteger();
+    CachedValue<Integer> cachedValue = new CachedValue<>(calls::incrementAndGet, 500);
+
+    assertEquals(1, cachedValue.get());
+    assertEquals(1, cachedValue.get());
+
+    Thread.sleep(550);
+
+    assertEquals(2, cachedValue.get());
+    assertEquals(2, calls.get());
+  }
+
+  @Test
+  void testValueWithoutTtlIsAlwaysComputed() {
+    AtomicInteger calls = new AtomicInteger();
+    CachedValue<Integer> cachedValue = new CachedValue<>(calls::incrementAndGet, 0);
+
+    assertEquals(1, cachedValue.get());
+    assertEquals(2, cachedValue.get());
+  }
+}
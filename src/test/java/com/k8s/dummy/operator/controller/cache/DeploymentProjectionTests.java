@@ -0,0 +1,127 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import io.fabric8.kubernetes.api.model.ListOptions;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.apps.DeploymentList;
+import io.fabric8.kubernetes.api.model.apps.DeploymentListBuilder;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.kubernetes.client.dsl.FilterWatchListDeletable;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Test class.
+ */
+public class DeploymentProjectionTests {
+  private static final String kindName = "Dummy";
+  private static final String annotation = "xgeeks.ki.com/spec-hash";
+  private final UnaryOperator<Deployment> projection =
+      DeploymentProjection.getProjection(List.of(annotation));
+
+  @Test
+  void testProjectionKeepsOnlyWhatTheOperatorReads() {
+    Deployment deployment = generateDeployment();
+
+    Deployment projected = projection.apply(deployment);
+
+    assertEquals("dummy", projected.getMetadata().getName());
+    assertEquals("default", projected.getMetadata().getNamespace());
+    assertEquals("10", projected.getMetadata().getResourceVersion());
+    assertEquals(2L, projected.getMetadata().getGeneration());
+    assertEquals(Map.of(annotation, "hash"), projected.getMetadata().getAnnotations());
+    assertEquals(List.of("uid"), DeploymentIndexers.getOwnerUids(projected, kindName));
+    assertEquals(3, projected.getSpec().getReplicas());
+    assertEquals(List.of("-c", "echo"),
+                 projected.getSpec().getTemplate().getSpec().getContainers().get(0).getArgs());
+    assertEquals("busybox",
+                 projected.getSpec().getTemplate().getSpec().getContainers().get(0).getImage());
+    assertEquals(Map.of(kindName, "dummy"),
+                 projected.getSpec().getTemplate().getMetadata().getLabels());
+    assertEquals(List.of(),
+                 projected.getSpec().getTemplate().getSpec().getContainers().get(0).getEnv());
+    assertNull(projected.getStatus());
+    assertEquals(List.of(), projected.getMetadata().getManagedFields());
+    assertNotNull(deployment.getStatus());
+  }
+
+  @Test
+  void testListedAndWatchedDeploymentsAreProjected() {
+    @SuppressWarnings("unchecked")
+    FilterWatchListDeletable<Deployment, DeploymentList> operation =
+        mock(FilterWatchListDeletable.class);
+    @SuppressWarnings("unchecked")
+    Watcher<Deployment> watcher = mock(Watcher.class);
+    doReturn(new DeploymentListBuilder().addToItems(generateDeployment()).build())
+        .when(operation).list(any(ListOptions.class));
+    ProjectingListerWatcher<Deployment, DeploymentList> listerWatcher =
+        new ProjectingListerWatcher<>(operation, projection);
+
+    final DeploymentList list = listerWatcher.list(new ListOptions(), "default", null);
+    listerWatcher.watch(new ListOptions(), "default", null, watcher);
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<Watcher<Deployment>> captor = ArgumentCaptor.forClass(Watcher.class);
+    verify(operation).watch(any(ListOptions.class), captor.capture());
+    captor.getValue().eventReceived(Watcher.Action.MODIFIED, generateDeployment());
+
+    assertNull(list.getItems().get(0).getStatus());
+    verify(watcher).eventReceived(eq(Watcher.Action.MODIFIED),
+                                  eq(projection.apply(generateDeployment())));
+  }
+
+  private Deployment generateDeployment() {
+    return new DeploymentBuilder()
+                .withNewMetadata()
+                  .withName("dummy")
+                  .withNamespace("default")
+                  .withResourceVersion("10")
+                  .withGeneration(2L)
+                  .addToAnnotations(annotation, "hash")
+                  .addToAnnotations("deployment.kubernetes.io/revision", "2")
+                  .addNewManagedField()
+                    .withManager("kube-controller-manager")
+                    .endManagedField()
+                  .addNewOwnerReference()
+                    .withKind(kindName)
+                    .withName("dummy")
+                    .withUid("uid")
+                    .endOwnerReference()
+                  .endMetadata()
+                .withNewSpec()
+                  .withReplicas(3)
+                  .withNewTemplate()
+                    .withNewMetadata()
+                      .addToLabels(kindName, "dummy")
+                      .endMetadata()
+                    .withNewSpec()
+                      .addNewContainer()
+                        .withName("dummy-container")
+                        .withImage("busybox")
+                        .addNewEnv()
+                          .withName("TZ")
+                          .withValue("UTC")
+                          .endEnv()
+                        .withArgs("-c", "echo")
+                        .endContainer()
+                      .endSpec()
+                    .endTemplate()
+                  .endSpec()
+                .withNewStatus()
+                  .withReplicas(3)
+                  .withObservedGeneration(2L)
+                  .endStatus()
+                .build();
+  }
+}
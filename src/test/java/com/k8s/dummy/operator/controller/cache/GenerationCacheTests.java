@@ -0,0 +1,72 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class GenerationCacheTests {
+  private final AtomicInteger generated = new AtomicInteger();
+  private final Function<ConfigMap, String> generator = configMap ->
+      configMap.getMetadata().getName() + "-" + generated.incrementAndGet();
+
+  @Test
+  void testValueIsReusedUntilTheGenerationChanges() {
+    GenerationCache<ConfigMap, String> cache = new GenerationCache<>(10);
+
+    final String value = cache.get(generateResource("a", 1L), generator);
+    assertSame(value, cache.get(generateResource("a", 1L), generator));
+    assertEquals(1, generated.get());
+
+    assertNotSame(value, cache.get(generateResource("a", 2L), generator));
+    assertEquals(2, generated.get());
+    assertEquals(1, cache.size());
+  }
+
+  @Test
+  void testLeastRecentlyUsedIsEvicted() {
+    GenerationCache<ConfigMap, String> cache = new GenerationCache<>(2);
+    cache.get(generateResource("a", 1L), generator);
+    cache.get(generateResource("b", 1L), generator);
+    cache.get(generateResource("a", 1L), generator);
+
+    cache.get(generateResource("c", 1L), generator);
+    cache.get(generateResource("a", 1L), generator);
+    assertEquals(3, generated.get());
+
+    cache.get(generateResource("b", 1L), generator);
+    assertEquals(4, generated.get());
+    assertEquals(2, cache.size());
+  }
+
+  @Test
+  void testEvictedAndUnversionedResourcesAreGenerated() {
+    GenerationCache<ConfigMap, String> cache = new GenerationCache<>(10);
+    cache.get(generateResource("a", 1L), generator);
+
+    cache.evict("a");
+    cache.get(generateResource("a", 1L), generator);
+    cache.get(generateResource("b", null), generator);
+    cache.get(generateResource("b", null), generator);
+
+    assertEquals(4, generated.get());
+    assertEquals(1, cache.size());
+  }
+
+  private ConfigMap generateResource(String uid, Long generation) {
+    return new ConfigMapBuilder().withNewMetadata()
+                                   .withName("name-" + uid)
+                                   .withUid(uid)
+                                   .withGeneration(generation)
+                                   .endMetadata()
+                                 .build();
+  }
+}
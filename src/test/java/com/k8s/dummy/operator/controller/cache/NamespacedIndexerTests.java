@@ -0,0 +1,54 @@
+package com.k8s.dummy.operator.controller.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.client.informers.cache.Cache;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class NamespacedIndexerTests {
+  private static final String kindName = "Dummy";
+
+  @Test
+  void testLookupsGoToTheIndexerOfTheNamespace() {
+    Cache<Deployment> first = new Cache<>();
+    Cache<Deployment> second = new Cache<>();
+    first.addIndexers(DeploymentIndexers.getIndexers(kindName));
+    second.addIndexers(DeploymentIndexers.getIndexers(kindName));
+    first.put(generateDeployment("first", "a", "uid-a"));
+    second.put(generateDeployment("second", "b", "uid-b"));
+    NamespacedIndexer<Deployment> indexer =
+        new NamespacedIndexer<>(Map.of("first", first, "second", second));
+
+    assertEquals("a", indexer.getByKey("first/a").getMetadata().getName());
+    assertEquals("b", indexer.getByKey("second/b").getMetadata().getName());
+    assertNull(indexer.getByKey("first/b"));
+    assertNull(indexer.getByKey("other/a"));
+    assertEquals(2, indexer.list().size());
+    assertTrue(indexer.listKeys().contains("second/b"));
+    assertEquals("b", indexer.byIndex(DeploymentIndexers.BY_OWNER_UID, "uid-b").get(0)
+                             .getMetadata().getName());
+    assertTrue(indexer.byIndex(DeploymentIndexers.BY_OWNER_UID, "uid-c").isEmpty());
+  }
+
+  private Deployment generateDeployment(String namespace, String name, String ownerUid) {
+    return new DeploymentBuilder()
+                .withNewMetadata()
+                  .withNamespace(namespace)
+                  .withName(name)
+                  .addNewOwnerReference()
+                    .withKind(kindName)
+                    .withName(name)
+                    .withUid(ownerUid)
+                    .endOwnerReference()
+                  .endMetadata()
+                .build();
+  }
+}
@@ -0,0 +1,118 @@
+package com.k8s.dummy.operator.controller.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class AsyncEnhancedClientTests {
+  private EnhancedClient<?> enhancedClient;
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    enhancedClient = mock(EnhancedClient.class);
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void testIndependentWritesAreSentTogether() throws Exception {
+    CountDownLatch bothSent = new CountDownLatch(2);
+    doAnswer(invocation -> {
+      bothSent.countDown();
+      return bothSent.await(5, TimeUnit.SECONDS) ? null : fail();
+    }).when(enhancedClient).addDeployment(any());
+    doAnswer(invocation -> {
+      bothSent.countDown();
+      return bothSent.await(5, TimeUnit.SECONDS) ? null : fail();
+    }).when(enhancedClient).updateStatus(any(), any());
+    AsyncEnhancedClient<?> asyncClient = new AsyncEnhancedClient<>(enhancedClient, executor, 2);
+
+    CompletableFuture.allOf(asyncClient.addDeployment(new Deployment()),
+                            asyncClient.updateStatus(new Dummy(), new DummyStatus()))
+                     .get(10, TimeUnit.SECONDS);
+
+    assertEquals(0, asyncClient.getInFlight());
+  }
+
+  @Test
+  void testRequestsInFlightAreLimited() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> release.await(5, TimeUnit.SECONDS) ? null : fail())
+        .when(enhancedClient).editDeployment(any());
+    AsyncEnhancedClient<?> asyncClient = new AsyncEnhancedClient<>(enhancedClient, executor, 2);
+    asyncClient.editDeployment(new Deployment());
+    asyncClient.editDeployment(new Deployment());
+
+    CompletableFuture<Void> third = CompletableFuture.runAsync(
+        () -> asyncClient.editDeployment(new Deployment()));
+    Thread.sleep(500);
+    assertEquals(2, asyncClient.getInFlight());
+    assertFalse(third.isDone());
+
+    release.countDown();
+    third.get(5, TimeUnit.SECONDS);
+  }
+
+  @Test
+  void testWriteChainedOnTheIoThreadDoesNotBlockIt() throws Exception {
+    ExecutorService ioThread = Executors.newSingleThreadExecutor();
+    CountDownLatch release = new CountDownLatch(1);
+    doAnswer(invocation -> release.await(5, TimeUnit.SECONDS) ? null : fail())
+        .when(enhancedClient).editDeployment(any());
+    AsyncEnhancedClient<?> asyncClient = new AsyncEnhancedClient<>(enhancedClient, ioThread, 1);
+
+    CompletableFuture<Void> chained = asyncClient.editDeployment(new Deployment())
+        .thenCompose(edited -> asyncClient.updateStatus(new Dummy(), new DummyStatus()));
+    CompletableFuture<Void> other = CompletableFuture.runAsync(
+        () -> asyncClient.addDeployment(new Deployment()).join());
+    Thread.sleep(200);
+    release.countDown();
+
+    CompletableFuture.allOf(chained, other).get(5, TimeUnit.SECONDS);
+    assertEquals(0, asyncClient.getInFlight());
+    ioThread.shutdownNow();
+  }
+
+  @Test
+  void testErrorsCompleteTheFutureExceptionally() {
+    doThrow(new KubernetesClientException("conflict")).when(enhancedClient).addDeployment(any());
+    AsyncEnhancedClient<?> asyncClient = new AsyncEnhancedClient<>(enhancedClient, executor, 1);
+
+    ExecutionException error = assertThrows(ExecutionException.class,
+        () -> asyncClient.addDeployment(new Deployment()).get(5, TimeUnit.SECONDS));
+
+    assertTrue(error.getCause() instanceof KubernetesClientException);
+    assertEquals(0, asyncClient.getInFlight());
+  }
+
+  private Object fail() {
+    throw new IllegalStateException("timed out");
+  }
+}
@@ -0,0 +1,172 @@
+package com.k8s.dummy.operator.controller.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.k8s.dummy.operator.model.v1beta1.Dummy;
+import com.k8s.dummy.operator.model.v1beta1.DummySpec;
+import com.k8s.dummy.operator.model.v1beta1.DummyStatus;
+import io.fabric8.kubernetes.api.model.ObjectMetaBuilder;
+import io.fabric8.kubernetes.api.model.apiextensions.v1.CustomResourceDefinitionBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.server.mock.EnableKubernetesMockClient;
+import io.fabric8.kubernetes.client.server.mock.KubernetesMockServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+@EnableKubernetesMockClient
+public class EnhancedKubernetesClientTests {
+  private static final String deploymentPath =
+      "/apis/apps/v1/namespaces/testNamespace/deployments/testName";
+  private static final String dummyPath =
+      "/apis/xgeeks.ki.com/v1beta1/namespaces/testNamespace/dummies/testName";
+
+  private KubernetesMockServer server;
+  private KubernetesClient client;
+
+  private Dummy dummy;
+
+  /** Create a Dummy object with some default attributes for the specification.
+   */
+  @BeforeEach
+  void dummySetup() {
+    dummy = new Dummy();
+    dummy.setMetadata(new ObjectMetaBuilder().withName("testName")
+                                             .withNamespace("testNamespace")
+                                             .build());
+
+    DummySpec dummySpec = new DummySpec();
+    dummySpec.setQuote("quote");
+    dummySpec.setSleep(20);
+    dummySpec.setExtra(new String[0]);
+    dummySpec.setReplicas(2);
+
+    dummy.setSpec(dummySpec);
+  }
+
+  @Test
+  void testPatchModeSendsSingleStrategicMergePatch() throws InterruptedException {
+    server.expect().patch().withPath(deploymentPath)
+          .andReturn(200, new DeploymentBuilder().withMetadata(dummy.getMetadata()).build())
+          .once();
+    Deployment deployment = new DeploymentBuilder()
+                                  .withNewMetadata()
+                                    .withName("testName")
+                                    .withNamespace("testNamespace")
+                                    .addToAnnotations("xgeeks.ki.com/spec-hash", "hash")
+                                    .endMetadata()
+                                  .withNewSpec()
+                                    .withReplicas(2)
+                                    .withNewTemplate()
+                                      .withNewSpec()
+                                        .addNewContainer()
+                                          .withName("container")
+                                          .endContainer()
+                                        .endSpec()
+                                      .endTemplate()
+                                    .endSpec()
+                                  .build();
+
+    new EnhancedKubernetesClient(client, DeploymentUpdateMode.PATCH).editDeployment(deployment);
+
+    RecordedRequest request = server.getLastRequest();
+    final String body = request.getBody().readUtf8();
+    assertEquals(1, server.getRequestCount());
+    assertEquals("PATCH", request.getMethod());
+    assertTrue(request.getHeader("Content-Type").startsWith("application/strategic-merge-patch"));
+    assertTrue(body.contains("\"replicas\":2"));
+    assertTrue(body.contains("\"xgeeks.ki.com/spec-hash\":\"hash\""));
+    assertFalse(body.contains("resourceVersion"));
+  }
+
+  @Test
+  void testUpdateStatusSendsOnlyStatusMergePatch() throws InterruptedException {
+    server.expect().patch().withPath(dummyPath + "/status")
+          .andReturn(200, dummy)
+          .once();
+    DummyStatus status = new DummyStatus();
+    status.setTimesChanged(3);
+
+    new EnhancedKubernetesClient(client, DeploymentUpdateMode.PATCH).updateStatus(dummy, status);
+
+    RecordedRequest request = server.getLastRequest();
+    final String body = request.getBody().readUtf8();
+    assertEquals(1, server.getRequestCount());
+    assertEquals("PATCH", request.getMethod());
+    assertTrue(request.getHeader("Content-Type").startsWith("application/merge-patch+json"));
+    assertTrue(body.contains("\"timesChanged\":3"));
+    assertFalse(body.contains("quote"));
+  }
+
+  @Test
+  void testStatusOfStaleDummyIsRejected() throws InterruptedException {
+    server.expect().patch().withPath(dummyPath + "/status")
+          .andReturn(409, null)
+          .once();
+    dummy.getMetadata().setResourceVersion("1");
+    DummyStatus status = new DummyStatus();
+    status.setTimesChanged(1);
+    status.setObservedGeneration(1L);
+
+    assertThrows(KubernetesClientException.class,
+        () -> new EnhancedKubernetesClient(client, DeploymentUpdateMode.PATCH)
+                  .updateStatus(dummy, status));
+
+    RecordedRequest request = server.getLastRequest();
+    assertEquals(1, server.getRequestCount());
+    assertEquals("PATCH", request.getMethod());
+    assertTrue(request.getBody().readUtf8().contains("\"resourceVersion\":\"1\""));
+  }
+
+  @Test
+  void testRenewLeaseSendsSinglePatch() throws InterruptedException {
+    Lease lease = new LeaseBuilder()
+                      .withNewMetadata()
+                        .withName("dummy-operator-a")
+                        .withNamespace("testNamespace")
+                        .endMetadata()
+                      .withNewSpec()
+                        .withHolderIdentity("a")
+                        .endSpec()
+                      .build();
+    server.expect().patch()
+          .withPath("/apis/coordination.k8s.io/v1/namespaces/testNamespace/leases/dummy-operator-a")
+          .andReturn(200, lease)
+          .once();
+
+    new EnhancedKubernetesClient(client, DeploymentUpdateMode.PATCH).renewLease(lease);
+
+    assertEquals(1, server.getRequestCount());
+    assertEquals("PATCH", server.getLastRequest().getMethod());
+  }
+
+  @Test
+  void testCheckHealthinessGetsCustomResourceDefinitionByName() {
+    server.expect().get()
+          .withPath("/apis/apiextensions.k8s.io/v1/customresourcedefinitions/dummies.xgeeks.ki.com")
+          .andReturn(200, new CustomResourceDefinitionBuilder()
+                                .withNewSpec()
+                                  .withNewNames()
+                                    .withKind("Dummy")
+                                    .endNames()
+                                  .endSpec()
+                                .build())
+          .once();
+    EnhancedKubernetesClient enhancedClient =
+        new EnhancedKubernetesClient(client, DeploymentUpdateMode.PATCH);
+
+    assertTrue(enhancedClient.checkHealthiness("Dummy"));
+    assertFalse(enhancedClient.checkHealthiness("Dummy"));
+  }
+}
@@ -0,0 +1,58 @@
+package com.k8s.dummy.operator.controller.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class InstrumentedEnhancedClientTests {
+  private EnhancedClient<?> delegate;
+  private MeterRegistry registry;
+  private InstrumentedEnhancedClient<?> client;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(EnhancedClient.class);
+    registry = new SimpleMeterRegistry();
+    client = new InstrumentedEnhancedClient<>(delegate, registry);
+  }
+
+  @Test
+  void testCallsAreRecordedOnTheMetersRegisteredUpFront() {
+    final int meters = registry.getMeters().size();
+    doNothing().when(delegate).addDeployment(any());
+
+    client.addDeployment(new Deployment());
+    client.addDeployment(new Deployment());
+
+    assertEquals(meters, registry.getMeters().size());
+    assertEquals(2, registry.get("operator.client.requests").tag("method", "addDeployment")
+                            .tag("outcome", "success").timer().count());
+  }
+
+  @Test
+  void testErrorsAreCountedByStatusCode() {
+    doThrow(new KubernetesClientException("conflict", 409, null))
+        .when(delegate).editDeployment(any());
+
+    assertThrows(KubernetesClientException.class, () -> client.editDeployment(new Deployment()));
+    assertThrows(KubernetesClientException.class, () -> client.editDeployment(new Deployment()));
+
+    assertEquals(2, registry.get("operator.client.errors").tag("method", "editDeployment")
+                            .tag("code", "409").counter().count());
+    assertEquals(2, registry.get("operator.client.requests").tag("method", "editDeployment")
+                            .tag("outcome", "error").timer().count());
+  }
+}
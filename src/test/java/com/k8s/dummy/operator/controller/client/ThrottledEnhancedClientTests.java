@@ -0,0 +1,88 @@
+package com.k8s.dummy.operator.controller.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+import io.fabric8.kubernetes.api.model.Status;
+import io.fabric8.kubernetes.api.model.StatusBuilder;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class ThrottledEnhancedClientTests {
+  private EnhancedClient<?> delegate;
+  private MeterRegistry registry;
+  private ThrottledEnhancedClient<?> client;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(EnhancedClient.class);
+    registry = new SimpleMeterRegistry();
+    client = new ThrottledEnhancedClient<>(delegate, registry, DeploymentUpdateMode.PATCH,
+                                          100, 1, 10);
+  }
+
+  @Test
+  void testThrottledRequestHalvesTheRateAndPauses() {
+    Status status = new StatusBuilder().withCode(429)
+                                       .withNewDetails()
+                                         .withRetryAfterSeconds(1)
+                                         .endDetails()
+                                       .build();
+    doThrow(new KubernetesClientException(status)).when(delegate).addDeployment(any());
+
+    assertThrows(KubernetesClientException.class, () -> client.addDeployment(new Deployment()));
+
+    assertEquals(50, getQps("create", "deployments"));
+    assertEquals(100, getQps("patch", "deployments"));
+
+    doNothing().when(delegate).addDeployment(any());
+    long start = System.nanoTime();
+    client.addDeployment(new Deployment());
+    assertTrue(System.nanoTime() - start > TimeUnit.MILLISECONDS.toNanos(500));
+  }
+
+  @Test
+  void testRateIsHalvedOnceAndGrowsBackAfterSuccessfulRequests() {
+    doThrow(new KubernetesClientException("throttled", 429, null))
+        .when(delegate).editDeployment(any());
+    assertThrows(KubernetesClientException.class, () -> client.editDeployment(new Deployment()));
+    assertThrows(KubernetesClientException.class, () -> client.editDeployment(new Deployment()));
+    assertEquals(50, getQps("patch", "deployments"));
+
+    doNothing().when(delegate).editDeployment(any());
+    for (int i = 0; i < 10; i++) {
+      client.editDeployment(new Deployment());
+    }
+
+    double qps = getQps("patch", "deployments");
+    assertTrue(qps > 50.1 && qps < 51, "qps " + qps);
+  }
+
+  @Test
+  void testDeploymentEditsAreTaggedWithTheVerbOfTheUpdateMode() {
+    registry = new SimpleMeterRegistry();
+    new ThrottledEnhancedClient<>(delegate, registry, DeploymentUpdateMode.EDIT, 20, 1, 10);
+
+    assertEquals(20, getQps("patch", "deployments"));
+    assertNull(registry.find("operator.client.qps").tag("verb", "update").gauge());
+  }
+
+  private double getQps(String verb, String resource) {
+    return registry.find("operator.client.qps").tag("verb", verb).tag("resource", resource)
+                   .gauge().value();
+  }
+}
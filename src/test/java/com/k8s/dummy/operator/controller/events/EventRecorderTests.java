@@ -0,0 +1,129 @@
+package com.k8s.dummy.operator.controller.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.k8s.dummy.operator.controller.client.EnhancedClient;
+import io.fabric8.kubernetes.api.model.events.v1.Event;
+import io.fabric8.kubernetes.api.model.events.v1.EventBuilder;
+import io.fabric8.kubernetes.api.model.events.v1.EventSeries;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+/**
+ * Test class.
+ */
+public class EventRecorderTests {
+  private static final long window = 1000;
+
+  private EnhancedClient<?> enhancedClientMock;
+  private EventRecorder eventRecorder;
+  private Event event;
+
+  /** Create an EventRecorder, without starting it, with a client mock returning the event
+   * it receives when an event is added.
+   */
+  @BeforeEach
+  void setup() {
+    enhancedClientMock = mock(EnhancedClient.class);
+    eventRecorder = new EventRecorder(enhancedClientMock, 1, window, window);
+    event = new EventBuilder()
+                .withNewMetadata()
+                  .withName("testName-editing-abc")
+                  .withNamespace("testNamespace")
+                  .endMetadata()
+                .withAction("editing")
+                .withReason("editing")
+                .withNewRegarding()
+                  .withKind("Dummy")
+                  .withName("testName")
+                  .withNamespace("testNamespace")
+                  .endRegarding()
+                .build();
+    doReturn(event).when(enhancedClientMock).addEvent(any());
+  }
+
+  @Test
+  void testRecordDropsEventsWhenBufferIsFull() {
+    assertTrue(eventRecorder.record(event));
+    assertFalse(eventRecorder.record(event));
+  }
+
+  @Test
+  void testSameEventWithinWindowIsAggregated() {
+    eventRecorder.process(event, 0);
+    eventRecorder.process(event, 10);
+    eventRecorder.process(event, 20);
+    eventRecorder.flush(30);
+
+    ArgumentCaptor<EventSeries> series = ArgumentCaptor.forClass(EventSeries.class);
+    verify(enhancedClientMock, times(1)).addEvent(event);
+    verify(enhancedClientMock).updateEventSeries(any(), series.capture());
+    assertEquals(3, series.getValue().getCount());
+
+    eventRecorder.flush(40);
+
+    verify(enhancedClientMock, times(1)).updateEventSeries(any(), any());
+  }
+
+  @Test
+  void testEventAfterWindowIsCreatedAgain() {
+    eventRecorder.process(event, 0);
+    eventRecorder.flush(window + 1);
+
+    assertEquals(0, eventRecorder.size());
+    verify(enhancedClientMock, never()).updateEventSeries(any(), any());
+
+    eventRecorder.process(event, window + 2);
+
+    verify(enhancedClientMock, times(2)).addEvent(event);
+  }
+
+  @Test
+  void testUnexpectedErrorDoesNotStopTheThread() {
+    final Event other = new EventBuilder(event).withAction("creating").withReason("creating")
+                                               .build();
+    doThrow(new IllegalStateException("unexpected")).when(enhancedClientMock).addEvent(event);
+    eventRecorder = new EventRecorder(enhancedClientMock, 2, window, 10);
+    eventRecorder.record(event);
+    eventRecorder.record(other);
+
+    eventRecorder.start();
+
+    verify(enhancedClientMock, timeout(1000)).addEvent(other);
+    eventRecorder.shutdown();
+  }
+
+  @Test
+  void testFailedSeriesUpdateDoesNotStopTheFlush() {
+    Event other = new EventBuilder(event).withAction("creating").withReason("creating").build();
+    doReturn(other).when(enhancedClientMock).addEvent(other);
+    doThrow(new KubernetesClientException("not found", 404, null))
+        .when(enhancedClientMock).updateEventSeries(eq(event), any());
+    eventRecorder.process(event, 0);
+    eventRecorder.process(event, 10);
+    eventRecorder.process(other, 0);
+    eventRecorder.process(other, 10);
+
+    eventRecorder.flush(20);
+
+    verify(enhancedClientMock, times(2)).updateEventSeries(any(), any());
+    assertEquals(1, eventRecorder.size());
+
+    eventRecorder.process(event, 30);
+
+    verify(enhancedClientMock, times(2)).addEvent(event);
+  }
+}
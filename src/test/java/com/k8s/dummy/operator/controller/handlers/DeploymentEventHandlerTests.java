@@ -0,0 +1,99 @@
+package com.k8s.dummy.operator.controller.handlers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.k8s.dummy.operator.controller.metrics.OperatorMetrics;
+import com.k8s.dummy.operator.controller.queue.WorkQueue;
+import com.k8s.dummy.operator.controller.sharding.Shard;
+import io.fabric8.kubernetes.api.model.apps.Deployment;
+import io.fabric8.kubernetes.api.model.apps.DeploymentBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class DeploymentEventHandlerTests {
+  private static final String kindName = "Dummy";
+
+  private WorkQueue<String> queue;
+  private MeterRegistry registry;
+  private DeploymentEventHandler handler;
+
+  @BeforeEach
+  void setUp() {
+    queue = new WorkQueue<>();
+    registry = new SimpleMeterRegistry();
+    handler = new DeploymentEventHandler(queue, kindName, Shard.ALL,
+                                         new OperatorMetrics(registry));
+  }
+
+  @Test
+  void testStatusUpdatesAndResyncsAreFiltered() {
+    Deployment deployment = generateDeployment(1L, 3);
+    Deployment statusUpdate = new DeploymentBuilder(deployment).withNewStatus()
+                                                                 .withReadyReplicas(3)
+                                                                 .endStatus()
+                                                               .build();
+
+    handler.onUpdate(deployment, statusUpdate);
+    handler.onUpdate(statusUpdate, statusUpdate);
+
+    assertEquals(0, queue.size());
+    assertEquals(2, countEvents(OperatorMetrics.FILTERED));
+  }
+
+  @Test
+  void testSpecUpdatesAndDeletesAreQueued() throws InterruptedException {
+    handler.onUpdate(generateDeployment(1L, 3), generateDeployment(2L, 0));
+    assertEquals("default/dummy", queue.take());
+    queue.done("default/dummy");
+
+    handler.onUpdate(generateDeployment(null, 3), generateDeployment(null, 0));
+    assertEquals("default/dummy", queue.take());
+    queue.done("default/dummy");
+
+    handler.onDelete(generateDeployment(2L, 0), false);
+    assertEquals("default/dummy", queue.take());
+    assertEquals(3, countEvents(OperatorMetrics.QUEUED));
+    assertEquals(0, countEvents(OperatorMetrics.FILTERED));
+  }
+
+  @Test
+  void testDeploymentsOfOtherShardsAreFiltered() {
+    handler = new DeploymentEventHandler(queue, kindName, key -> false,
+                                         new OperatorMetrics(registry));
+
+    handler.onUpdate(generateDeployment(1L, 3), generateDeployment(2L, 0));
+    handler.onDelete(generateDeployment(2L, 0), false);
+
+    assertEquals(0, queue.size());
+    assertEquals(0, countEvents(OperatorMetrics.QUEUED));
+    assertEquals(2, countEvents(OperatorMetrics.FILTERED));
+  }
+
+  private double countEvents(String outcome) {
+    return registry.find("operator.events").tag("outcome", outcome).counters().stream()
+                   .mapToDouble(counter -> counter.count())
+                   .sum();
+  }
+
+  private Deployment generateDeployment(Long generation, int replicas) {
+    return new DeploymentBuilder()
+                .withNewMetadata()
+                  .withName("dummy")
+                  .withNamespace("default")
+                  .withGeneration(generation)
+                  .addNewOwnerReference()
+                    .withKind(kindName)
+                    .withName("dummy")
+                    .endOwnerReference()
+                  .endMetadata()
+                .withNewSpec()
+                  .withReplicas(replicas)
+                  .endSpec()
+                .build();
+  }
+}
@@ -0,0 +1,32 @@
+package com.k8s.dummy.operator.controller.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class OperatorMetricsTests {
+
+  @Test
+  void testReconcilesAndEventsAreRecordedOnTheMetersRegisteredUpFront() {
+    MeterRegistry registry = new SimpleMeterRegistry();
+    OperatorMetrics operatorMetrics = new OperatorMetrics(registry);
+    final int meters = registry.getMeters().size();
+
+    operatorMetrics.recordReconcile(OperatorMetrics.CREATED, 1000);
+    operatorMetrics.recordReconcile(OperatorMetrics.CREATED, 1000);
+    operatorMetrics.observeEvent("deployment", true);
+    operatorMetrics.observeEvent("deployment", false);
+    operatorMetrics.observeEvent("deployment", false);
+
+    assertEquals(meters, registry.getMeters().size());
+    assertEquals(2, registry.get("operator.reconcile").tag("outcome", OperatorMetrics.CREATED)
+                            .timer().count());
+    assertEquals(2, registry.get("operator.events").tag("resource", "deployment")
+                            .tag("outcome", OperatorMetrics.FILTERED).counter().count());
+  }
+}
@@ -0,0 +1,65 @@
+package com.k8s.dummy.operator.controller.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class RateLimitingQueueTests {
+
+  @Test
+  void testExponentialBackoffIsCappedAndForgotten() {
+    RateLimiter<String> limiter = new ItemExponentialFailureRateLimiter<>(5, 100);
+
+    assertEquals(5, limiter.when("ns/a"));
+    assertEquals(10, limiter.when("ns/a"));
+    assertEquals(20, limiter.when("ns/a"));
+    assertEquals(40, limiter.when("ns/a"));
+    assertEquals(80, limiter.when("ns/a"));
+    assertEquals(100, limiter.when("ns/a"));
+    assertEquals(5, limiter.when("ns/b"));
+    assertEquals(6, limiter.numRequeues("ns/a"));
+
+    limiter.forget("ns/a");
+
+    assertEquals(0, limiter.numRequeues("ns/a"));
+    assertEquals(5, limiter.when("ns/a"));
+  }
+
+  @Test
+  void testExponentialBackoffDoesNotOverflow() {
+    RateLimiter<String> limiter = new ItemExponentialFailureRateLimiter<>(5, 1000);
+
+    for (int i = 0; i < 100; i++) {
+      limiter.when("ns/a");
+    }
+
+    assertEquals(1000, limiter.when("ns/a"));
+  }
+
+  @Test
+  void testMaxOfUsesLongestDelay() {
+    RateLimiter<String> limiter = new MaxOfRateLimiter<>(
+        new ItemExponentialFailureRateLimiter<>(5, 100),
+        new BucketRateLimiter<>(1, 1));
+
+    assertEquals(5, limiter.when("ns/a"));
+    assertEquals(1, limiter.numRequeues("ns/a"));
+    assertTrue(limiter.when("ns/b") > 5);
+  }
+
+  @Test
+  void testAddAfterQueuesWhenDelayEnds() throws InterruptedException {
+    RateLimitingQueue<String> queue =
+        new RateLimitingQueue<>(new ItemExponentialFailureRateLimiter<>(5, 100));
+
+    queue.addAfter("ns/a", 10);
+    assertEquals(0, queue.size());
+    assertEquals("ns/a", queue.take());
+
+    queue.shutdown();
+  }
+}
@@ -0,0 +1,108 @@
+package com.k8s.dummy.operator.controller.queue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class WorkQueueTests {
+
+  private WorkQueue<String> queue;
+
+  @BeforeEach
+  void queueSetup() {
+    queue = new WorkQueue<>();
+  }
+
+  @Test
+  void testAddDeduplicatesWaitingItems() throws InterruptedException {
+    queue.add("ns/a");
+    queue.add("ns/b");
+    queue.add("ns/a");
+
+    assertEquals(2, queue.size());
+    assertEquals("ns/a", queue.take());
+    assertEquals("ns/b", queue.take());
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void testAddWhileProcessingRequeuesOnceWhenDone() throws InterruptedException {
+    queue.add("ns/a");
+    final String item = queue.take();
+
+    queue.add("ns/a");
+    queue.add("ns/a");
+    assertEquals(0, queue.size());
+
+    queue.done(item);
+    assertEquals(1, queue.size());
+    assertEquals("ns/a", queue.take());
+  }
+
+  @Test
+  void testDoneWithoutAddDoesNotRequeue() throws InterruptedException {
+    queue.add("ns/a");
+    queue.done(queue.take());
+
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  void testUrgentLanesGoFirstWithoutStarvingTheOthers() throws InterruptedException {
+    for (int i = 0; i < 20; i++) {
+      queue.add("audit/" + i, Lane.AUDIT);
+      queue.add("edit/" + i, Lane.SPEC_EDIT);
+      queue.add("repair/" + i, Lane.REPAIR);
+    }
+
+    for (int i = 0; i < 8; i++) {
+      assertTrue(queue.take().startsWith("repair/"));
+    }
+    assertTrue(queue.take().startsWith("edit/"));
+    assertTrue(queue.take().startsWith("edit/"));
+    assertTrue(queue.take().startsWith("audit/"));
+    assertTrue(queue.take().startsWith("repair/"));
+    assertEquals(11, queue.size(Lane.REPAIR));
+  }
+
+  @Test
+  void testAddToMoreUrgentLaneMovesTheItem() throws InterruptedException {
+    queue.add("ns/a", Lane.AUDIT);
+    queue.add("ns/b", Lane.SPEC_EDIT);
+    queue.add("ns/a", Lane.REPAIR);
+    queue.add("ns/a", Lane.AUDIT);
+
+    assertEquals(2, queue.size());
+    assertEquals(0, queue.size(Lane.AUDIT));
+    final String item = queue.take();
+    assertEquals("ns/a", item);
+    assertEquals(Lane.REPAIR, queue.getLane(item));
+
+    queue.add("ns/a", Lane.NEW);
+    queue.done(item);
+    assertEquals(Lane.NEW, queue.getLane(item));
+    assertEquals("ns/a", queue.take());
+  }
+
+  @Test
+  void testRemoveDropsWaitingAndDirtyItems() throws InterruptedException {
+    queue.add("ns/a");
+    queue.add("ns/b");
+    final String item = queue.take();
+    queue.add(item);
+
+    assertTrue(queue.remove(item));
+    assertTrue(queue.remove("ns/b"));
+    assertFalse(queue.remove("ns/c"));
+    assertEquals(0, queue.size());
+
+    queue.done(item);
+    assertEquals(0, queue.size());
+  }
+}
@@ -0,0 +1,207 @@
+package com.k8s.dummy.operator.controller.sharding;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.k8s.dummy.operator.controller.client.EnhancedClient;
+import io.fabric8.kubernetes.api.model.coordination.v1.Lease;
+import io.fabric8.kubernetes.api.model.coordination.v1.LeaseBuilder;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class ShardManagerTests {
+  private static final List<String> namespaces = IntStream.range(0, 1000)
+                                                          .mapToObj(i -> "namespace-" + i)
+                                                          .collect(Collectors.toList());
+
+  @Test
+  void testRingMovesOnlyTheKeysOfTheMemberThatJoined() {
+    HashRing twoMembers = new HashRing(List.of("a", "b"), 100);
+    HashRing threeMembers = new HashRing(List.of("a", "b", "c"), 100);
+
+    long moved = namespaces.stream()
+                           .filter(ns -> !twoMembers.getOwner(ns).equals(threeMembers.getOwner(ns)))
+                           .count();
+    long ownedByC = namespaces.stream().filter(ns -> threeMembers.getOwner(ns).equals("c")).count();
+
+    assertEquals(ownedByC, moved);
+    assertTrue(ownedByC > 200 && ownedByC < 460);
+    assertNull(new HashRing(List.of(), 100).getOwner("namespace"));
+  }
+
+  @Test
+  void testReplicasSplitTheNamespaces() {
+    EnhancedClient<?> enhancedClient = mock(EnhancedClient.class);
+    doReturn(List.of(generateLease("a", "1", "a,b"), generateLease("b", "1", "a,b")))
+        .when(enhancedClient).getLeases(any(), any());
+    ShardManager a = new ShardManager(enhancedClient, "default", "a", 15000, 5000, 100);
+    ShardManager b = new ShardManager(enhancedClient, "default", "b", 15000, 5000, 100);
+
+    a.renew();
+    b.renew();
+
+    assertEquals(Set.of("a", "b"), a.getMembers());
+    for (String namespace : namespaces) {
+      assertTrue(a.owns(namespace + "/dummy") ^ b.owns(namespace + "/dummy"));
+    }
+  }
+
+  @Test
+  void testRebalanceListenersAreCalledWhenMembersChange() {
+    EnhancedClient<?> enhancedClient = mock(EnhancedClient.class);
+    ShardManager shardManager = new ShardManager(enhancedClient, "default", "a", 15000, 5000, 100);
+    AtomicInteger rebalances = new AtomicInteger();
+    shardManager.addRebalanceListener(rebalances::incrementAndGet);
+
+    doReturn(List.of()).when(enhancedClient).getLeases(any(), any());
+    shardManager.renew();
+    shardManager.renew();
+    assertEquals(1, rebalances.get());
+    assertTrue(shardManager.owns("namespace/dummy"));
+
+    doReturn(List.of(generateLease("b", "1", "")))
+        .when(enhancedClient).getLeases(any(), any());
+    shardManager.renew();
+    assertEquals(2, rebalances.get());
+  }
+
+  @Test
+  void testNothingIsOwnedWhenTheLeaseCannotBeRenewed() throws InterruptedException {
+    EnhancedClient<?> enhancedClient = mock(EnhancedClient.class);
+    doReturn(List.of()).when(enhancedClient).getLeases(any(), any());
+    ShardManager shardManager = new ShardManager(enhancedClient, "default", "a", 1000, 10, 100);
+
+    assertFalse(shardManager.owns("namespace/dummy"));
+    shardManager.renew();
+    assertTrue(shardManager.owns("namespace/dummy"));
+
+    doThrow(new KubernetesClientException("error")).when(enhancedClient).renewLease(any());
+    Thread.sleep(1100);
+    shardManager.renew();
+    assertFalse(shardManager.owns("namespace/dummy"));
+  }
+
+  @Test
+  void testLeaseIsCreatedOnceAndThenPatched() {
+    EnhancedClient<?> enhancedClient = mock(EnhancedClient.class);
+    doReturn(List.of()).when(enhancedClient).getLeases(any(), any());
+    ShardManager shardManager = new ShardManager(enhancedClient, "default", "a", 1000, 10, 100);
+
+    shardManager.renew();
+    shardManager.renew();
+
+    verify(enhancedClient, times(1)).createLease(any());
+    verify(enhancedClient, times(2)).renewLease(any());
+
+    doThrow(new KubernetesClientException("not found", 404, null))
+        .doNothing().when(enhancedClient).renewLease(any());
+    shardManager.renew();
+
+    verify(enhancedClient, times(2)).createLease(any());
+    assertTrue(shardManager.owns("namespace/dummy"));
+  }
+
+  @Test
+  void testLeaseLeftByPreviousRunIsPatched() {
+    EnhancedClient<?> enhancedClient = mock(EnhancedClient.class);
+    doReturn(List.of()).when(enhancedClient).getLeases(any(), any());
+    doThrow(new KubernetesClientException("already exists", 409, null))
+        .when(enhancedClient).createLease(any());
+    ShardManager shardManager = new ShardManager(enhancedClient, "default", "a", 1000, 10, 100);
+
+    shardManager.renew();
+    shardManager.renew();
+
+    verify(enhancedClient, times(1)).createLease(any());
+    verify(enhancedClient, times(3)).renewLease(any());
+    assertTrue(shardManager.owns("namespace/dummy"));
+  }
+
+  @Test
+  void testLeaseExpiresWhenItsVersionStopsChangingWhateverItsRenewTime()
+      throws InterruptedException {
+    EnhancedClient<?> enhancedClient = mock(EnhancedClient.class);
+    Lease skewed = new LeaseBuilder(generateLease("b", "1", "a,b"))
+                         .editSpec()
+                           .withLeaseDurationSeconds(1)
+                           .withRenewTime(ZonedDateTime.now().plusHours(1))
+                           .endSpec()
+                         .build();
+    doReturn(List.of(skewed)).when(enhancedClient).getLeases(any(), any());
+    ShardManager shardManager = new ShardManager(enhancedClient, "default", "a", 15000, 5000, 100);
+
+    shardManager.renew();
+    assertEquals(Set.of("a", "b"), shardManager.getMembers());
+
+    Thread.sleep(1100);
+    shardManager.renew();
+    assertEquals(Set.of("a"), shardManager.getMembers());
+
+    doReturn(List.of(new LeaseBuilder(skewed).editMetadata().withResourceVersion("2")
+                                             .endMetadata().build()))
+        .when(enhancedClient).getLeases(any(), any());
+    shardManager.renew();
+    assertEquals(Set.of("a", "b"), shardManager.getMembers());
+  }
+
+  @Test
+  void testNamespacesAreReleasedBeforeTheyAreTaken() {
+    final HashRing ring = new HashRing(List.of("a", "b"), 100);
+    EnhancedClient<?> clientOfA = mock(EnhancedClient.class);
+    EnhancedClient<?> clientOfB = mock(EnhancedClient.class);
+    ShardManager a = new ShardManager(clientOfA, "default", "a", 15000, 5000, 100);
+    final ShardManager b = new ShardManager(clientOfB, "default", "b", 15000, 5000, 100);
+    doReturn(List.of()).when(clientOfA).getLeases(any(), any());
+    a.renew();
+    assertTrue(namespaces.stream().allMatch(namespace -> a.owns(namespace + "/dummy")));
+
+    doReturn(List.of(generateLease("b", "1", ""))).when(clientOfA).getLeases(any(), any());
+    doReturn(List.of(generateLease("a", "1", "a"))).when(clientOfB).getLeases(any(), any());
+    a.renew();
+    b.renew();
+
+    for (String namespace : namespaces) {
+      assertEquals(ring.getOwner(namespace).equals("a"), a.owns(namespace + "/dummy"));
+      assertFalse(b.owns(namespace + "/dummy"));
+    }
+
+    doReturn(List.of(generateLease("a", "2", "a,b"))).when(clientOfB).getLeases(any(), any());
+    b.renew();
+
+    for (String namespace : namespaces) {
+      assertEquals(ring.getOwner(namespace).equals("b"), b.owns(namespace + "/dummy"));
+    }
+  }
+
+  private Lease generateLease(String identity, String resourceVersion, String members) {
+    return new LeaseBuilder()
+                .withNewMetadata()
+                  .withName("dummy-operator-" + identity)
+                  .withResourceVersion(resourceVersion)
+                  .addToAnnotations(ShardManager.MEMBERS_ANNOTATION, members)
+                  .endMetadata()
+                .withNewSpec()
+                  .withHolderIdentity(identity)
+                  .withLeaseDurationSeconds(15)
+                  .withRenewTime(ZonedDateTime.now())
+                  .endSpec()
+                .build();
+  }
+}
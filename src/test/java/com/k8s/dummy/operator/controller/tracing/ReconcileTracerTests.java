@@ -0,0 +1,87 @@
+package com.k8s.dummy.operator.controller.tracing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class.
+ */
+public class ReconcileTracerTests {
+
+  @Test
+  void testOldestTracesAreOverwritten() {
+    ReconcileTracer tracer = new ReconcileTracer(2);
+    for (int i = 0; i < 3; i++) {
+      ReconcileTrace trace = tracer.start("namespace/dummy-" + i);
+      trace.finish("no-op");
+      tracer.record(trace);
+    }
+
+    List<String> keys = tracer.getSlowest(10).stream()
+                              .map(ReconcileTrace::getKey)
+                              .sorted()
+                              .collect(Collectors.toList());
+    assertEquals(List.of("namespace/dummy-1", "namespace/dummy-2"), keys);
+  }
+
+  @Test
+  void testSlowestTracesComeFirst() {
+    ReconcileTracer tracer = new ReconcileTracer(10);
+    for (int i = 1; i <= 3; i++) {
+      ReconcileTrace trace = tracer.start("namespace/dummy-" + i);
+      long end = System.nanoTime();
+      trace.addSpan("queue.wait", end - TimeUnit.MILLISECONDS.toNanos(i * 100), end);
+      trace.finish("created");
+      tracer.record(trace);
+    }
+
+    List<ReconcileTrace> slowest = tracer.getSlowest(2);
+
+    assertEquals(2, slowest.size());
+    assertEquals("namespace/dummy-3", slowest.get(0).getKey());
+    assertEquals("namespace/dummy-2", slowest.get(1).getKey());
+    assertTrue(slowest.get(0).getDurationMillis() >= 300);
+  }
+
+  @Test
+  void testTracesAreExportedAsOtlpSpans() {
+    ReconcileTracer tracer = new ReconcileTracer(1);
+    ReconcileTrace trace = tracer.start("namespace/dummy");
+    long now = System.nanoTime();
+    trace.addSpan("client.addDeployment", now, now);
+    trace.finish("created");
+
+    Map<String, Object> request = ReconcileTracer.toOtlp(trace);
+
+    List<?> spans = (List<?>) ((Map<?, ?>) ((List<?>) ((Map<?, ?>) ((List<?>) request
+        .get("resourceSpans")).get(0)).get("scopeSpans")).get(0)).get("spans");
+    assertEquals(2, spans.size());
+    Map<?, ?> root = (Map<?, ?>) spans.get(0);
+    Map<?, ?> child = (Map<?, ?>) spans.get(1);
+    assertEquals("reconcile", root.get("name"));
+    assertEquals(32, trace.getTraceId().length());
+    assertEquals(trace.getTraceId(), child.get("traceId"));
+    assertEquals(root.get("spanId"), child.get("parentSpanId"));
+    assertEquals(3, child.get("kind"));
+  }
+
+  @Test
+  void testNothingIsKeptWithoutBuffer() {
+    ReconcileTracer tracer = new ReconcileTracer(0);
+    ReconcileTrace trace = tracer.start("namespace/dummy");
+    trace.addSpan("queue.wait", 0, 1);
+    trace.finish("created");
+    tracer.record(trace);
+
+    assertSame(ReconcileTrace.NOOP, trace);
+    assertTrue(trace.getSpans().isEmpty());
+    assertTrue(tracer.getSlowest(10).isEmpty());
+  }
+}